@@ -0,0 +1,101 @@
+package de.dagere.kopeme;
+
+import java.util.Arrays;
+
+/**
+ * Calibrates how many invocations of a test are batched into one measured execution, so that an execution takes at least a target duration. For operations of
+ * a few nanoseconds, the resolution of the timer and the overhead of calling the test would otherwise dominate the measurement. The overhead which remains is
+ * measured as baseline by running the same batch with an empty test, so it can be subtracted from the measured durations.
+ *
+ * @author reichelt
+ *
+ */
+public final class BatchCalibrator {
+
+   /**
+    * A batch of invocations of the test.
+    */
+   public interface Batch {
+      void run(int invocations) throws Throwable;
+   }
+
+   private static final int MAX_INVOCATIONS = 1 << 30;
+
+   /**
+    * Part of the target duration a batch needs to take before the count of invocations is extrapolated; shorter batches are doubled, since their duration
+    * is not exact enough.
+    */
+   private static final int EXTRAPOLATION_FRACTION = 8;
+
+   /**
+    * Count of measurements of a batch during calibration; their minimum is used, so a single preemption of the test does not shorten the batches.
+    */
+   private static final int CALIBRATION_SAMPLES = 3;
+
+   private static final int BASELINE_SAMPLES = 21;
+
+   private final long targetDuration;
+
+   /**
+    * Creates a calibrator.
+    *
+    * @param targetDuration Duration of one execution in nanoseconds
+    */
+   public BatchCalibrator(final long targetDuration) {
+      if (targetDuration <= 0) {
+         throw new RuntimeException("Target duration of a batch needs to be positive, but was " + targetDuration);
+      }
+      this.targetDuration = targetDuration;
+   }
+
+   /**
+    * Returns the count of invocations which take about the target duration.
+    *
+    * @param batch Batch of invocations of the test
+    * @return Count of invocations
+    * @throws Throwable Any exception that occurs during the test
+    */
+   public int calibrate(final Batch batch) throws Throwable {
+      int invocations = 1;
+      while (invocations < MAX_INVOCATIONS) {
+         final long duration = measureMinimum(batch, invocations);
+         if (duration >= targetDuration / EXTRAPOLATION_FRACTION) {
+            final double extrapolated = Math.ceil((double) invocations * targetDuration / duration);
+            return (int) Math.max(1, Math.min(MAX_INVOCATIONS, extrapolated));
+         }
+         invocations *= 2;
+      }
+      return MAX_INVOCATIONS;
+   }
+
+   /**
+    * Measures the duration of a batch of an empty test, which is the overhead contained in every measured execution.
+    *
+    * @param emptyBatch Batch of invocations of an empty test
+    * @param invocations Count of invocations per batch
+    * @return Median duration of the batch in nanoseconds
+    * @throws Throwable Any exception that occurs during the batch
+    */
+   public long measureBaseline(final Batch emptyBatch, final int invocations) throws Throwable {
+      final long[] durations = new long[BASELINE_SAMPLES];
+      for (int i = 0; i < BASELINE_SAMPLES; i++) {
+         durations[i] = measure(emptyBatch, invocations);
+      }
+      Arrays.sort(durations);
+      return durations[BASELINE_SAMPLES / 2];
+   }
+
+   private static long measureMinimum(final Batch batch, final int invocations) throws Throwable {
+      long minimum = Long.MAX_VALUE;
+      for (int i = 0; i < CALIBRATION_SAMPLES; i++) {
+         minimum = Math.min(minimum, measure(batch, invocations));
+      }
+      return minimum;
+   }
+
+   private static long measure(final Batch batch, final int invocations) throws Throwable {
+      final long start = System.nanoTime();
+      batch.run(invocations);
+      return System.nanoTime() - start;
+   }
+}
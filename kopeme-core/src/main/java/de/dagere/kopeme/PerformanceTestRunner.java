@@ -15,7 +15,9 @@ import de.dagere.kopeme.annotations.Assertion;
 import de.dagere.kopeme.annotations.MaximalRelativeStandardDeviation;
 import de.dagere.kopeme.annotations.PerformanceTest;
 import de.dagere.kopeme.datacollection.DataCollectorList;
+import de.dagere.kopeme.datacollection.HeapQuiescer;
 import de.dagere.kopeme.datacollection.TestResult;
+import de.dagere.kopeme.datacollection.WarmupController;
 import de.dagere.kopeme.datastorage.RunConfiguration;
 import de.dagere.kopeme.datastorage.SaveableTestData;
 
@@ -38,7 +40,10 @@ public class PerformanceTestRunner {
    protected String filename;
    private final boolean useKieker;
    private boolean isFinished = false;
+   private PerformanceTest annotation;
+   private int steadyStateIteration = -1;
    private final RunConfiguration configuration;
+   private final DataCollectorList datacollectors;
 
    /**
     * Initializes the PerformanceTestRunner.
@@ -60,6 +65,7 @@ public class PerformanceTestRunner {
          warmupExecutions = annotation.warmup();
          repetitions = annotation.repetitions();
          minEarlyStopExecutions = annotation.minEarlyStopExecutions();
+         this.annotation = annotation;
          timeout = annotation.timeout();
          maximalRelativeStandardDeviation = new HashMap<>();
 
@@ -72,8 +78,10 @@ public class PerformanceTestRunner {
             assertationvalues.put(a.collectorname(), a.maxvalue());
          }
          configuration = new RunConfiguration(annotation);
+         datacollectors = DataCollectorList.getConfiguredList(annotation.dataCollectors());
       } else {
          configuration = new RunConfiguration(5, 1, false, false, false, true);
+         datacollectors = DataCollectorList.STANDARD;
          useKieker = false;
       }
 
@@ -139,7 +147,9 @@ public class PerformanceTestRunner {
          if (!PerformanceTestUtils.checkCollectorValidity(tr, assertationvalues, maximalRelativeStandardDeviation)) {
             LOG.warn("Not all Collectors are valid!");
          }
-         TestResult finalResult = new TestResult(method.getName(), executionTimes, DataCollectorList.STANDARD, false);
+         TestResult finalResult = new TestResult(method.getName(), executionTimes, datacollectors, false);
+         finalResult.setSteadyStateIteration(steadyStateIteration);
+         finalResult.setHeapQuiescer(HeapQuiescer.create(annotation));
          params[0] = finalResult;
          tr.beforeRun();
          final PerformanceKoPeMeStatement pts = new PerformanceKoPeMeStatement(method, instanz, false, params, finalResult);
@@ -162,11 +172,13 @@ public class PerformanceTestRunner {
     * @throws InvocationTargetException Thrown if an error during method access occurs
     */
    private TestResult executeSimpleTest() throws IllegalAccessException, InvocationTargetException {
-      TestResult tr = new TestResult(method.getName(), warmupExecutions, DataCollectorList.STANDARD, false);
+      TestResult tr = new TestResult(method.getName(), warmupExecutions, datacollectors, false);
       final Object[] params = {};
       runWarmup(params);
       tr.deleteTempFile();
-      tr = new TestResult(method.getName(), executionTimes, DataCollectorList.STANDARD, true);
+      tr = new TestResult(method.getName(), executionTimes, datacollectors, true);
+      tr.setSteadyStateIteration(steadyStateIteration);
+      tr.setHeapQuiescer(HeapQuiescer.create(annotation));
 
       if (!PerformanceTestUtils.checkCollectorValidity(tr, assertationvalues, maximalRelativeStandardDeviation)) {
          LOG.warn("Not all Collectors are valid!");
@@ -197,10 +209,20 @@ public class PerformanceTestRunner {
     */
    private void runWarmup(final Object[] params) throws IllegalAccessException, InvocationTargetException {
       final String methodString = method.getClass().getName() + "." + method.getName();
+      final WarmupController controller = annotation != null ? WarmupController.create(annotation) : null;
       for (int i = 1; i <= warmupExecutions; i++) {
          LOG.info("--- Starting warmup execution " + methodString + " - " + i + "/" + warmupExecutions + " ---");
+         final long start = System.nanoTime();
          method.invoke(instanz, params);
+         final long duration = System.nanoTime() - start;
          LOG.info("--- Stopping warmup execution " + i + "/" + warmupExecutions + " ---");
+         if (controller != null && controller.addValue(duration)) {
+            LOG.info("Exiting warmup because of steady state reached");
+            break;
+         }
+      }
+      if (controller != null) {
+         steadyStateIteration = controller.getSteadyStateIteration();
       }
    }
 
@@ -214,6 +236,7 @@ public class PerformanceTestRunner {
     */
    private void runMainExecution(final PerformanceKoPeMeStatement pts, final TestResult tr) throws IllegalAccessException, InvocationTargetException {
       final String methodString = method.getClass().getName() + "." + method.getName();
+      tr.getHeapQuiescer().beforeMeasurement(false);
       int executions;
       for (executions = 1; executions <= executionTimes; executions++) {
          LOG.debug("--- Starting execution " + methodString + " " + executions + "/" + executionTimes + " ---");
@@ -225,12 +248,14 @@ public class PerformanceTestRunner {
             LOG.debug("Entry: {} Aim: {}", entry.getKey(), entry.getValue());
          }
          tr.setRealExecutions(executions);
-//         if (executions >= minEarlyStopExecutions && !maximalRelativeStandardDeviation.isEmpty()
-//               && tr.isRelativeStandardDeviationBelow(maximalRelativeStandardDeviation)) {
-//            break;
-//         }
+         if (executions >= minEarlyStopExecutions && !maximalRelativeStandardDeviation.isEmpty()
+               && tr.isRelativeStandardDeviationBelow(maximalRelativeStandardDeviation)) {
+            LOG.info("Exiting because of deviation reached");
+            tr.setSavedExecutions(executionTimes - executions);
+            break;
+         }
       }
-      LOG.debug("Executions: " + executions);
-      tr.setRealExecutions(executions);
+      tr.getHeapQuiescer().afterMeasurement();
+      LOG.debug("Executions: " + tr.getRealExecutions());
    }
 }
@@ -1,8 +1,10 @@
 package de.dagere.kopeme;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import javax.xml.bind.JAXBException;
@@ -13,7 +15,9 @@ import org.apache.logging.log4j.Logger;
 
 import de.dagere.kopeme.datacollection.TestResult;
 import de.dagere.kopeme.datacollection.TimeDataCollector;
+import de.dagere.kopeme.datastorage.AppendingDataStorer;
 import de.dagere.kopeme.datastorage.DataStorer;
+import de.dagere.kopeme.datastorage.HistogramFile;
 import de.dagere.kopeme.datastorage.SaveableTestData;
 import de.dagere.kopeme.datastorage.XMLDataStorer;
 import de.dagere.kopeme.generated.Result;
@@ -91,9 +95,11 @@ public final class PerformanceTestUtils {
             }
          }
 
+         final Map<String, Result> results = new LinkedHashMap<>();
          for (final String key : tr.getKeys()) {
-            buildKeyData(data, xds, tr, key);
+            results.put(key, buildKeyData(data, tr, key));
          }
+         xds.storeValues(data.getTestcasename(), results);
       } catch (final JAXBException e) {
          e.printStackTrace();
       }
@@ -104,16 +110,26 @@ public final class PerformanceTestUtils {
       if (!folder.exists()) {
          folder.mkdirs();
       }
-      return new XMLDataStorer(folder, data.getFilename(), data.getTestcasename());
+      if (AppendingDataStorer.isAppendingEnabled()) {
+         return new AppendingDataStorer(folder, data.getFilename(), data.getTestcasename());
+      }
+      return XMLDataStorer.getInstance(folder, data.getFilename(), data.getTestcasename());
    }
 
-   private static void buildKeyData(final SaveableTestData data, final DataStorer xds, final TestResult tr, final String key) {
+   private static Result buildKeyData(final SaveableTestData data, final TestResult tr, final String key) {
       LOG.trace("Collector Key: {}", key);
       final Result result = getMeasureFromTR(data, tr, key);
       final Fulldata fulldata = data.getConfiguration().isSaveValues() ? tr.getFulldata(key) : null;
       tr.clearFulldata(key);
       result.setFulldata(fulldata);
-      xds.storeValue(result, data.getTestcasename(), key);
+      if (data.getConfiguration().isSaveHistograms() && tr.getHistogram(key) != null) {
+         try {
+            result.setHistogram(HistogramFile.writeTemp(tr.getHistogram(key)).getAbsolutePath());
+         } catch (IOException e) {
+            e.printStackTrace();
+         }
+      }
+      return result;
    }
 
    private static Result getMeasureFromTR(final SaveableTestData data, final TestResult tr, final String additionalKey) {
@@ -126,6 +142,13 @@ public final class PerformanceTestUtils {
       result.setDeviation(relativeStandardDeviation);
       result.setMin(min);
       result.setMax(max);
+      final double[] percentiles = tr.getPercentiles(additionalKey, 50, 90, 99, 99.9);
+      if (!Double.isNaN(percentiles[0])) {
+         result.setPercentile50(percentiles[0]);
+         result.setPercentile90(percentiles[1]);
+         result.setPercentile99(percentiles[2]);
+         result.setPercentile999(percentiles[3]);
+      }
       result.setWarmup(data.getConfiguration().getWarmupExecutions());
       result.setIterations(tr.getRealExecutions());
       result.setRepetitions(data.getConfiguration().getRepetitions());
@@ -134,6 +157,22 @@ public final class PerformanceTestUtils {
       result.setShowStart(data.getConfiguration().isShowStart());
       result.setDate(new Date().getTime());
       result.setJavaVersion(System.getProperty("java.version"));
+      result.setWriteStalls((long) tr.getWriteStalls());
+      if (tr.getSavedExecutions() > 0) {
+         result.setEarlyStopSavedIterations((long) tr.getSavedExecutions());
+      }
+      if (tr.getSteadyStateIteration() != -1) {
+         result.setSteadyStateIteration((long) tr.getSteadyStateIteration());
+      }
+      result.setHeapQuiescing(tr.getHeapQuiescer().toString());
+      if (tr.getBatchInvocations() > 0) {
+         result.setRepetitions(tr.getBatchInvocations());
+         result.setBatchBaseline(tr.getBatchBaseline());
+         final double invocationTime = tr.getInvocationTime(additionalKey);
+         if (!Double.isNaN(invocationTime)) {
+            result.setInvocationTime(invocationTime);
+         }
+      }
       return result;
    }
 
@@ -157,4 +196,41 @@ public final class PerformanceTestUtils {
       LOG.trace("Perzentil: " + evaluate);
       return evaluate;
    }
+
+   /**
+    * Returns a given percentil for the first count values of a primitive array, e.g. a column of the measured values.
+    * 
+    * @param values The values for which the percentil should be calculated
+    * @param count Count of valid values in the array
+    * @param percentil Percentage for the percentil
+    * @return The percentil value
+    */
+   public static double getPercentile(final long[] values, final int count, final double percentil) {
+      return getPercentiles(values, count, percentil)[0];
+   }
+
+   /**
+    * Returns several percentiles for the first count values of a primitive array. The values are copied once and the selection is shared between the
+    * percentiles, so this is cheaper than calling {@link #getPercentile(long[], int, double)} for every percentile.
+    * 
+    * @param values The values for which the percentiles should be calculated
+    * @param count Count of valid values in the array
+    * @param percentils Percentages for the percentiles
+    * @return The percentile values, in the order of the given percentages
+    */
+   public static double[] getPercentiles(final long[] values, final int count, final double... percentils) {
+      final double[] wertArray = new double[count];
+      for (int i = 0; i < count; i++) {
+         wertArray[i] = values[i];
+      }
+
+      final Percentile p = new Percentile();
+      p.setData(wertArray);
+      final double[] result = new double[percentils.length];
+      for (int i = 0; i < percentils.length; i++) {
+         result[i] = p.evaluate(percentils[i]);
+         LOG.trace("Perzentil: {}", result[i]);
+      }
+      return result;
+   }
 }
@@ -6,6 +6,8 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+import de.dagere.kopeme.datacollection.HeapQuiescing;
+
 import kieker.common.record.controlflow.OperationExecutionRecord;
 import kieker.monitoring.core.controller.MonitoringController;
 
@@ -53,6 +55,16 @@ public @interface PerformanceTest {
 	 */
 	int repetitions() default 1;
 
+	/**
+	 * Optionally specify a target duration in microseconds of one execution. If set, the count of repetitions of the test per execution is calibrated after
+	 * the warmup so that an execution takes about this duration, and the duration of an execution of an empty test is measured as baseline; the duration of
+	 * one invocation without the baseline is saved in the result. This is useful for operations of a few nanoseconds, whose measurement would otherwise be
+	 * dominated by the resolution of the timer. In this case, <code>repetitions</code> is only used for the warmup.
+	 * 
+	 * @return Target duration of one execution in microseconds, 0 if the repetitions should not be calibrated
+	 */
+	int autoBatchDuration() default 0;
+
 	/**
 	 * Optionally specify the count of executions, that should be executed before the measuring begins.
 	 * 
@@ -60,6 +72,45 @@ public @interface PerformanceTest {
 	 */
 	int warmup() default 1;
 
+	/**
+	 * Optionally specify that the warmup is finished as soon as the durations of the warmup executions reach a steady state, which is detected by
+	 * {@link de.dagere.kopeme.datacollection.WarmupController}. In this case, <code>warmup</code> is the maximal count of warmup executions.
+	 * 
+	 * @return Whether to detect the end of the warmup
+	 */
+	boolean detectSteadyState() default false;
+
+	/**
+	 * Optionally specify that the warmup is only finished after the JIT compiler has not been active for the given count of warmup executions, measured by the
+	 * total compilation time of the JVM. This can be combined with <code>detectSteadyState</code>; in both cases, <code>warmup</code> is the maximal count of
+	 * warmup executions.
+	 * 
+	 * @return Count of warmup executions without compilation, 0 if compilation should not be considered
+	 */
+	int quietCompilationIterations() default 0;
+
+	/**
+	 * Optionally specify when garbage is collected by System.gc(); by default, this is done before every execution if a collector like the TimeDataCollector
+	 * requires it, and before and after all executions.
+	 * 
+	 * @return Strategy for quiescing the heap
+	 */
+	HeapQuiescing heapQuiescing() default HeapQuiescing.EVERY_ITERATION;
+
+	/**
+	 * Count of executions between two garbage collections if <code>heapQuiescing</code> is EVERY_N_ITERATIONS.
+	 * 
+	 * @return Count of executions
+	 */
+	int heapQuiescingInterval() default 100;
+
+	/**
+	 * Percentage of the maximum heap above which garbage is collected before an execution if <code>heapQuiescing</code> is HEAP_OCCUPANCY.
+	 * 
+	 * @return Percentage of the maximum heap
+	 */
+	int heapQuiescingOccupancy() default 80;
+
 	/**
 	 * Optionally specify the timeout after which the test is canceled. The test is canceled after the timeout occurs for all executions, not for a single.
 	 * execution of the method.
@@ -75,6 +126,14 @@ public @interface PerformanceTest {
 	 */
 	boolean logFullData() default false;
 
+	/**
+	 * Optionally specify that the values of time collectors should be recorded in a latency histogram, which is saved in compressed form next to the result
+	 * file. This keeps the distribution of the values with a few KB, even if full data would take several MB.
+	 * 
+	 * @return Whether to log histograms
+	 */
+	boolean logHistogram() default false;
+
 	/**
 	 * Optionally specify which performance thresholds should be checked after the execution is completed.
 	 * 
@@ -83,7 +142,9 @@ public @interface PerformanceTest {
 	Assertion[] assertions() default {};
 	
 	/**
-	 * Sets the Datacollectors - possible values are STANDARD, ONLYTIME and NONE.
+	 * Sets the Datacollectors as comma-separated list of names - possible values are the lists STANDARD, EXTENDED, ONLYTIME, ONLYTIME_NOGC, GCACTIVITY and NONE
+	 * and names of single DataCollectors, e.g. "ONLYTIME_NOGC,AllocationCollector" (see
+	 * {@link de.dagere.kopeme.datacollection.DataCollectorList#getList(String)}). The system property kopeme.datacollectors overrides this value.
 	 * 
 	 * @return Datacollectors that should be used
 	 */
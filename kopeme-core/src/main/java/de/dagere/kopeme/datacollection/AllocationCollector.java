@@ -0,0 +1,70 @@
+package de.dagere.kopeme.datacollection;
+
+import java.lang.management.ManagementFactory;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Saves the bytes allocated by the experiment thread during an execution, as counted by the JVM for each thread. In contrast to the {@link RAMUsageCollector},
+ * this needs no garbage collection before the execution and is not disturbed by garbage collections during the execution. Allocations of other threads are
+ * measured by the {@link ThreadGroupAllocationCollector}.
+ *
+ * @author reichelt
+ *
+ */
+public final class AllocationCollector extends DataCollector {
+
+   private static final Logger LOG = LogManager.getLogger(AllocationCollector.class);
+
+   private static final ThreadMXBean THREAD_BEAN = initThreadBean();
+
+   private long threadId;
+   private long start = 0, stop = 0;
+
+   private static ThreadMXBean initThreadBean() {
+      final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      if (bean instanceof ThreadMXBean && ((ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+         final ThreadMXBean allocationBean = (ThreadMXBean) bean;
+         if (!allocationBean.isThreadAllocatedMemoryEnabled()) {
+            allocationBean.setThreadAllocatedMemoryEnabled(true);
+         }
+         return allocationBean;
+      }
+      LOG.error("Measuring allocated memory of threads is not supported by this JVM, allocated bytes will be 0");
+      return null;
+   }
+
+   /**
+    * Returns the bytes allocated by the given thread since its start.
+    *
+    * @param threadId Id of the thread
+    * @return Allocated bytes, 0 if the JVM does not support measuring allocated memory, or -1 if the thread is not alive
+    */
+   static long getAllocatedBytes(final long threadId) {
+      return THREAD_BEAN != null ? THREAD_BEAN.getThreadAllocatedBytes(threadId) : 0;
+   }
+
+   @Override
+   public int getPriority() {
+      return MIDDLE_COLLECTOR_PRIORITY;
+   }
+
+   @Override
+   public void startCollection() {
+      threadId = Thread.currentThread().getId();
+      start = getAllocatedBytes(threadId);
+   }
+
+   @Override
+   public void stopCollection() {
+      stop = getAllocatedBytes(threadId);
+   }
+
+   @Override
+   public long getValue() {
+      return stop - start;
+   }
+}
@@ -21,7 +21,7 @@ public final class CPUUsageCollector extends DataCollector {
 	private long startTimeCpu = 0, stopTimeCpu = 0;
 	private long startTimeUser = 0, stopTimeUser = 0;
 	private long startTime = 0, stopTime = 0;
-	private ThreadMXBean mxb;
+	private final ThreadMXBean mxb = ManagementFactory.getThreadMXBean();
 
 	@Override
 	public int getPriority() {
@@ -30,7 +30,6 @@ public final class CPUUsageCollector extends DataCollector {
 
 	@Override
 	public void startCollection() {
-		mxb = ManagementFactory.getThreadMXBean();
 		startTimeCpu = mxb.getCurrentThreadCpuTime();
 		startTimeUser = mxb.getCurrentThreadUserTime();
 		startTime = System.nanoTime();
@@ -47,7 +46,9 @@ public final class CPUUsageCollector extends DataCollector {
 	public long getValue() {
 		long cpuTime = stopTimeCpu - startTimeCpu;
 		long time = stopTime - startTime;
-		LOG.trace("CPUTime: " + cpuTime + " Usertime: " + (stopTimeUser - startTimeUser));
+		if (LOG.isTraceEnabled()) {
+			LOG.trace("CPUTime: " + cpuTime + " Usertime: " + (stopTimeUser - startTimeUser));
+		}
 		if (!mxb.isCurrentThreadCpuTimeSupported()) return -1;
 		return (MULTIPLICATOR_FOR_READABILITY * cpuTime) / time;
 
@@ -0,0 +1,51 @@
+package de.dagere.kopeme.datacollection;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Saves the time in milliseconds the JIT compiler has been active during an execution, summed over all compiler threads. A value above 0 means that the
+ * execution overlapped a compilation, so its other values may be disturbed; such executions are marked in the full data of all collectors (see
+ * {@link TestResult#getFulldata(String)}).
+ *
+ * @author reichelt
+ *
+ */
+public final class CompilationCollector extends DataCollector {
+
+   private static final CompilationMXBean COMPILATION_BEAN = ManagementFactory.getCompilationMXBean();
+
+   private long start = 0, stop = 0;
+
+   /**
+    * Returns the total compilation time of the JVM in milliseconds.
+    *
+    * @return Total compilation time, or -1 if the JVM has no JIT compiler or does not support measuring its time
+    */
+   public static long getTotalCompilationTime() {
+      if (COMPILATION_BEAN == null || !COMPILATION_BEAN.isCompilationTimeMonitoringSupported()) {
+         return -1;
+      }
+      return COMPILATION_BEAN.getTotalCompilationTime();
+   }
+
+   @Override
+   public int getPriority() {
+      return LOW_DATACOLLECTOR_PRIORITY;
+   }
+
+   @Override
+   public void startCollection() {
+      start = getTotalCompilationTime();
+   }
+
+   @Override
+   public void stopCollection() {
+      stop = getTotalCompilationTime();
+   }
+
+   @Override
+   public long getValue() {
+      return stop - start;
+   }
+}
@@ -1,5 +1,7 @@
 package de.dagere.kopeme.datacollection;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Super class of all classes enabling test data collection, for example test time, RAM usage, ...
  * 
@@ -45,6 +47,54 @@ public abstract class DataCollector {
 	 */
 	public abstract long getValue();
 
+	/**
+	 * Returns whether the values of this DataCollector are durations in nanoseconds, which can be recorded in a latency histogram if histograms are enabled for
+	 * the {@link TestResult}.
+	 * 
+	 * @return Whether the values can be recorded in a histogram
+	 */
+	public boolean isHistogramSupported() {
+		return false;
+	}
+
+	/**
+	 * Returns whether the DataCollector requires a garbage collection before every execution to measure correctly. The garbage collection is done by the
+	 * {@link HeapQuiescer} of the {@link TestResult}, depending on its strategy.
+	 * 
+	 * @return Whether a garbage collection is required
+	 */
+	public boolean isHeapQuiescingRequired() {
+		return false;
+	}
+
+	/**
+	 * Returns the unit of the values, if they are durations of the execution itself, i.e. its wall clock or CPU time. Durations of other activities during the
+	 * execution, e.g. of the JIT compiler or the garbage collector, are no durations of the execution. This is used for computing the duration of one
+	 * invocation of a batched test (see {@link TestResult#getInvocationTime(String)}).
+	 * 
+	 * @return Unit of the values, or null if the values are no durations of the execution
+	 */
+	public TimeUnit getDurationUnit() {
+		return null;
+	}
+
+	/**
+	 * Returns whether the values are the wall clock time of the execution. Only the wall clock time contains the baseline of a batched test, which is measured
+	 * as wall clock time of an empty batch, so the baseline is only subtracted from the values of these collectors.
+	 * 
+	 * @return Whether the values are the wall clock time of the execution
+	 */
+	public boolean isWallClockTime() {
+		return false;
+	}
+
+	/**
+	 * Releases the resources of the DataCollector, e.g. open files. This is called by the {@link TestResult} when the measurement is finished; since the
+	 * instances of a {@link DataCollectorList} may be reused, the DataCollector needs to reacquire its resources if it is started again.
+	 */
+	public void close() {
+	}
+
 	/**
 	 * Starts the Datacollection or restarts it, if it was stopped before.
 	 * 
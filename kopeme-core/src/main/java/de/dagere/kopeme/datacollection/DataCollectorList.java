@@ -1,14 +1,23 @@
 package de.dagere.kopeme.datacollection;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.ServiceLoader;
 import java.util.Set;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
 /**
  * Contains enumerations of DataCollectors, which could be used. Here is a good extension point: if one has additional DataCollectors in an project, and one
  * wants to use this frequently, one could extend this class and add new DataCollectorLists.
  * 
+ * Alternatively, lists can be created from names by {@link #getList(String)}, e.g. from the annotation of a test. Additional DataCollectors are found by their
+ * name if they are registered for the {@link ServiceLoader} in <code>META-INF/services/de.dagere.kopeme.datacollection.DataCollector</code>.
+ * 
  * @author dagere
  * 
  */
@@ -20,7 +29,7 @@ public class DataCollectorList {
 	public static final DataCollectorList EXTENDED;
 	
 	/**
-	 * The list, containing the standard-Collectors, i.e. collectors for Time, Hard disk usage and cpu usage.
+	 * The list, containing the standard-Collectors, i.e. collectors for Time, RAM usage and cpu usage. Hard disk usage is collected by the EXTENDED list.
 	 */
 	public static final DataCollectorList STANDARD;
 	/**
@@ -31,12 +40,29 @@ public class DataCollectorList {
     * The list containing only a collector for time usage without GC.
     */
    public static final DataCollectorList ONLYTIME_NOGC;
+	/**
+	 * The list containing a collector for time usage without GC and the collectors for the activity of the garbage collection, so executions containing a
+	 * garbage collection can be identified instead of forcing a garbage collection before every execution.
+	 */
+	public static final DataCollectorList GCACTIVITY;
 	/**
 	 * The list, containing no collector; one could use this if one wants only to use self-defined collectors.
 	 */
 	public static final DataCollectorList NONE;
 
+	/**
+	 * System property which overrides the DataCollectors of all tests, see {@link #getConfiguredList(String)}.
+	 */
+	public static final String DATACOLLECTORS_PROPERTY = "kopeme.datacollectors";
+
+	private static final Logger LOG = LogManager.getLogger(DataCollectorList.class);
+
+	private static final Map<String, DataCollectorList> LISTS = new LinkedHashMap<>();
+	private static Map<String, Class<? extends DataCollector>> serviceCollectors;
+
 	private final Set<Class<? extends DataCollector>> collectors;
+	private final boolean reuseInstances;
+	private Map<String, DataCollector> instances;
 
 	static {
 		STANDARD = new DataCollectorList();
@@ -49,6 +75,19 @@ public class DataCollectorList {
 		EXTENDED.addDataCollector(CPUUsageCollector.class);
 		EXTENDED.addDataCollector(RAMUsageCollector.class);
 		EXTENDED.addDataCollector(EndRAMCollector.class);
+		EXTENDED.addDataCollector(CompilationCollector.class);
+		EXTENDED.addDataCollector(AllocationCollector.class);
+		EXTENDED.addDataCollector(ThreadGroupAllocationCollector.class);
+		EXTENDED.addDataCollector(ThreadGroupCPUCollector.class);
+		EXTENDED.addDataCollector(ParallelismCollector.class);
+		EXTENDED.addDataCollector(TaskClockCollector.class);
+		EXTENDED.addDataCollector(RunQueueWaitCollector.class);
+		EXTENDED.addDataCollector(DiskReadCollector.class);
+		EXTENDED.addDataCollector(DiskWriteCollector.class);
+		EXTENDED.addDataCollector(ReadSyscallCollector.class);
+		EXTENDED.addDataCollector(WriteSyscallCollector.class);
+		EXTENDED.addDataCollector(VoluntaryContextSwitchCollector.class);
+		EXTENDED.addDataCollector(InvoluntaryContextSwitchCollector.class);
 
 		ONLYTIME = new DataCollectorList();
 		ONLYTIME.addDataCollector(TimeDataCollector.class);
@@ -56,14 +95,102 @@ public class DataCollectorList {
 		ONLYTIME_NOGC = new DataCollectorList();
 		ONLYTIME_NOGC.addDataCollector(TimeDataCollectorNoGC.class);
 
+		GCACTIVITY = new DataCollectorList();
+		GCACTIVITY.addDataCollector(TimeDataCollectorNoGC.class);
+		GCACTIVITY.addDataCollector(GCActivityCollector.class);
+		GCACTIVITY.addDataCollector(GCPauseTimeCollector.class);
+		GCACTIVITY.addDataCollector(PromotedBytesCollector.class);
+
 		NONE = new DataCollectorList();
+
+		LISTS.put("STANDARD", STANDARD);
+		LISTS.put("EXTENDED", EXTENDED);
+		LISTS.put("ONLYTIME", ONLYTIME);
+		LISTS.put("ONLYTIME_NOGC", ONLYTIME_NOGC);
+		LISTS.put("GCACTIVITY", GCACTIVITY);
+		LISTS.put("NONE", NONE);
 	}
 
 	/**
 	 * Initializes a DataCollectorList with empty list.
 	 */
 	protected DataCollectorList() {
+		this(false);
+	}
+
+	private DataCollectorList(final boolean reuseInstances) {
 		collectors = new HashSet<>();
+		this.reuseInstances = reuseInstances;
+	}
+
+	/**
+	 * Creates a DataCollectorList from a comma-separated list of names. A name may be the name of a predefined list (STANDARD, EXTENDED, ONLYTIME,
+	 * ONLYTIME_NOGC, GCACTIVITY or NONE), the simple name of a DataCollector of KoPeMe (e.g. AllocationCollector), the simple or full name of a DataCollector
+	 * registered for the {@link ServiceLoader} or the full name of any other DataCollector class.
+	 * 
+	 * The returned list is meant to be used for one test: its DataCollectors are instantiated once and reused by every {@link TestResult} of the test.
+	 * 
+	 * @param names Comma-separated names of DataCollectors and DataCollectorLists
+	 * @return The DataCollectorList
+	 */
+	public static DataCollectorList getList(final String names) {
+		final DataCollectorList list = new DataCollectorList(true);
+		for (final String name : names.split(",")) {
+			final String trimmedName = name.trim();
+			if (trimmedName.isEmpty()) {
+				continue;
+			}
+			final DataCollectorList predefined = LISTS.get(trimmedName);
+			if (predefined != null) {
+				list.collectors.addAll(predefined.collectors);
+			} else {
+				list.addDataCollector(getCollectorClass(trimmedName));
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Creates the DataCollectorList of a test like {@link #getList(String)}. If the system property {@value #DATACOLLECTORS_PROPERTY} is set, its names are
+	 * used instead of the names given by the test.
+	 * 
+	 * @param names Comma-separated names of DataCollectors and DataCollectorLists defined by the test
+	 * @return The DataCollectorList
+	 */
+	public static DataCollectorList getConfiguredList(final String names) {
+		return getList(System.getProperty(DATACOLLECTORS_PROPERTY, names));
+	}
+
+	private static Class<? extends DataCollector> getCollectorClass(final String name) {
+		if (!name.contains(".")) {
+			try {
+				return Class.forName(DataCollector.class.getPackage().getName() + "." + name).asSubclass(DataCollector.class);
+			} catch (final ClassNotFoundException | ClassCastException e) {
+				LOG.trace("{} is no DataCollector of KoPeMe", name);
+			}
+		}
+		final Class<? extends DataCollector> serviceCollector = getServiceCollectors().get(name);
+		if (serviceCollector != null) {
+			return serviceCollector;
+		}
+		try {
+			return Class.forName(name).asSubclass(DataCollector.class);
+		} catch (final ClassNotFoundException | ClassCastException e) {
+			throw new RuntimeException("DataCollector " + name + " could not be found", e);
+		}
+	}
+
+	private static synchronized Map<String, Class<? extends DataCollector>> getServiceCollectors() {
+		if (serviceCollectors == null) {
+			serviceCollectors = new HashMap<>();
+			for (final DataCollector collector : ServiceLoader.load(DataCollector.class)) {
+				final Class<? extends DataCollector> collectorClass = collector.getClass();
+				LOG.debug("Found DataCollector {}", collectorClass.getName());
+				serviceCollectors.put(collectorClass.getName(), collectorClass);
+				serviceCollectors.put(collectorClass.getSimpleName(), collectorClass);
+			}
+		}
+		return serviceCollectors;
 	}
 
 	/**
@@ -79,11 +206,22 @@ public class DataCollectorList {
 	}
 
 	/**
-	 * Returns new DataCollectors, which are saved in the current DataCollectorList. Every time this method is called there are new DataCollectors instanciated.
+	 * Returns the DataCollectors, which are saved in the current DataCollectorList. For the predefined lists, new DataCollectors are instanciated every time
+	 * this method is called; lists created by {@link #getList(String)} instanciate their DataCollectors only once, since they are used by one test only.
 	 * 
 	 * @return DataCollectors, which are saved in the current DataCollectorList.
 	 */
 	public final Map<String, DataCollector> getDataCollectors() {
+		if (reuseInstances) {
+			if (instances == null) {
+				instances = Collections.unmodifiableMap(createDataCollectors());
+			}
+			return instances;
+		}
+		return createDataCollectors();
+	}
+
+	private Map<String, DataCollector> createDataCollectors() {
 		final Map<String, DataCollector> collectorsRet = new HashMap<>();
 		for (final Class<? extends DataCollector> c : collectors) {
 			DataCollector dc;
@@ -0,0 +1,15 @@
+package de.dagere.kopeme.datacollection;
+
+/**
+ * Saves the bytes the process caused to be read from the storage layer during an execution, from <code>read_bytes</code> of
+ * <code>/proc/self/io</code>; reads served by the page cache are not included.
+ *
+ * @author reichelt
+ *
+ */
+public final class DiskReadCollector extends ProcValueCollector {
+
+   public DiskReadCollector() {
+      super("io", "read_bytes:", false);
+   }
+}
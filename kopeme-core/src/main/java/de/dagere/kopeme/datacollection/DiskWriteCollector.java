@@ -0,0 +1,16 @@
+package de.dagere.kopeme.datacollection;
+
+/**
+ * Saves the bytes the process caused to be sent to the storage layer during an execution, from <code>write_bytes</code> of
+ * <code>/proc/self/io</code>. Since the value is counted for the whole process, it includes the writes of KoPeMe itself during the execution, i.e. of the
+ * thread draining the values of large runs to disk (see {@link de.dagere.kopeme.datacollection.tempfile.ResultTempWriter}) and of logging.
+ *
+ * @author reichelt
+ *
+ */
+public final class DiskWriteCollector extends ProcValueCollector {
+
+   public DiskWriteCollector() {
+      super("io", "write_bytes:", false);
+   }
+}
@@ -0,0 +1,35 @@
+package de.dagere.kopeme.datacollection;
+
+/**
+ * Saves the count of garbage collections during an execution. In contrast to {@link TimeDataCollector}, no garbage collection is forced before the execution;
+ * instead, executions which contained a garbage collection are marked in the full data of all collectors (see {@link TestResult#getFulldata(String)}), so the
+ * analysis can separate garbage collection noise from real changes.
+ *
+ * @author reichelt
+ *
+ */
+public final class GCActivityCollector extends DataCollector {
+
+   private final GCActivityMonitor monitor = GCActivityMonitor.getInstance();
+   private long start = 0, stop = 0;
+
+   @Override
+   public int getPriority() {
+      return LOW_DATACOLLECTOR_PRIORITY;
+   }
+
+   @Override
+   public void startCollection() {
+      start = monitor.getCollectionCount();
+   }
+
+   @Override
+   public void stopCollection() {
+      stop = monitor.getCollectionCount();
+   }
+
+   @Override
+   public long getValue() {
+      return stop - start;
+   }
+}
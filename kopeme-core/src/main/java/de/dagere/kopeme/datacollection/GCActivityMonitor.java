@@ -0,0 +1,111 @@
+package de.dagere.kopeme.datacollection;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * Sums up the activity of all garbage collectors of the JVM for the GC collectors ({@link GCActivityCollector}, {@link GCPauseTimeCollector} and
+ * {@link PromotedBytesCollector}).
+ *
+ * Count and time of the collections are read from the {@link GarbageCollectorMXBean}s, so they are exact at the end of an execution. The promoted bytes, i.e.
+ * the growth of the old generation during collections, are only available from the GC notifications, which are delivered asynchronously after the
+ * collection; therefore, the promotion of a collection at the very end of an execution may be attributed to the next execution.
+ *
+ * @author reichelt
+ *
+ */
+final class GCActivityMonitor {
+
+   private static final Logger LOG = LogManager.getLogger(GCActivityMonitor.class);
+
+   private static final GCActivityMonitor INSTANCE = new GCActivityMonitor();
+
+   private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+   private final Set<String> oldGenerationPools = new HashSet<>();
+   private final AtomicLong promotedBytes = new AtomicLong();
+
+   private GCActivityMonitor() {
+      for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+         final String name = pool.getName();
+         if (pool.getType() == MemoryType.HEAP && (name.contains("Old") || name.contains("Tenured"))) {
+            oldGenerationPools.add(name);
+         }
+      }
+      final NotificationListener listener = (notification, handback) -> handleNotification(notification);
+      for (final GarbageCollectorMXBean collector : collectors) {
+         if (collector instanceof NotificationEmitter) {
+            ((NotificationEmitter) collector).addNotificationListener(listener, null, null);
+         }
+      }
+      if (oldGenerationPools.isEmpty()) {
+         LOG.debug("No old generation found, promoted bytes will always be 0");
+      }
+   }
+
+   static GCActivityMonitor getInstance() {
+      return INSTANCE;
+   }
+
+   private void handleNotification(final Notification notification) {
+      if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+         return;
+      }
+      final GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+      final Map<String, MemoryUsage> before = info.getGcInfo().getMemoryUsageBeforeGc();
+      final Map<String, MemoryUsage> after = info.getGcInfo().getMemoryUsageAfterGc();
+      long promoted = 0;
+      for (final String pool : oldGenerationPools) {
+         if (before.containsKey(pool) && after.containsKey(pool)) {
+            promoted += Math.max(0, after.get(pool).getUsed() - before.get(pool).getUsed());
+         }
+      }
+      promotedBytes.addAndGet(promoted);
+   }
+
+   /**
+    * Returns the count of collections of all garbage collectors since the start of the JVM.
+    */
+   long getCollectionCount() {
+      long count = 0;
+      for (final GarbageCollectorMXBean collector : collectors) {
+         count += Math.max(0, collector.getCollectionCount());
+      }
+      return count;
+   }
+
+   /**
+    * Returns the accumulated collection time in milliseconds of all garbage collectors since the start of the JVM.
+    */
+   long getCollectionTime() {
+      long time = 0;
+      for (final GarbageCollectorMXBean collector : collectors) {
+         time += Math.max(0, collector.getCollectionTime());
+      }
+      return time;
+   }
+
+   /**
+    * Returns the bytes promoted to the old generation since the monitor has been created.
+    */
+   long getPromotedBytes() {
+      return promotedBytes.get();
+   }
+}
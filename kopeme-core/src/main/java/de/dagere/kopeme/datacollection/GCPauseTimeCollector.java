@@ -0,0 +1,34 @@
+package de.dagere.kopeme.datacollection;
+
+/**
+ * Saves the time in milliseconds the garbage collectors have been active during an execution, as reported by the garbage collector MXBeans. For most
+ * collectors, this is the pause time; for concurrent collectors, it may include concurrent work.
+ *
+ * @author reichelt
+ *
+ */
+public final class GCPauseTimeCollector extends DataCollector {
+
+   private final GCActivityMonitor monitor = GCActivityMonitor.getInstance();
+   private long start = 0, stop = 0;
+
+   @Override
+   public int getPriority() {
+      return LOW_DATACOLLECTOR_PRIORITY;
+   }
+
+   @Override
+   public void startCollection() {
+      start = monitor.getCollectionTime();
+   }
+
+   @Override
+   public void stopCollection() {
+      stop = monitor.getCollectionTime();
+   }
+
+   @Override
+   public long getValue() {
+      return stop - start;
+   }
+}
@@ -0,0 +1,125 @@
+package de.dagere.kopeme.datacollection;
+
+import de.dagere.kopeme.annotations.PerformanceTest;
+
+/**
+ * Quiesces the heap of a measurement according to a {@link HeapQuiescing} strategy. Each {@link TestResult} has its own quiescer, which counts the executions.
+ *
+ * @author reichelt
+ *
+ */
+public final class HeapQuiescer {
+
+   private static final int PERCENT = 100;
+
+   private final HeapQuiescing strategy;
+   private final int interval;
+   private final int occupancy;
+   private int iteration = 0;
+
+   /**
+    * Creates a quiescer.
+    *
+    * @param strategy Strategy for quiescing
+    * @param interval Count of executions between two garbage collections for {@link HeapQuiescing#EVERY_N_ITERATIONS}
+    * @param occupancy Percentage of the maximum heap above which garbage is collected for {@link HeapQuiescing#HEAP_OCCUPANCY}
+    */
+   public HeapQuiescer(final HeapQuiescing strategy, final int interval, final int occupancy) {
+      if (strategy == HeapQuiescing.EVERY_N_ITERATIONS && interval < 1) {
+         throw new RuntimeException("Interval of heap quiescing needs to be at least 1, but was " + interval);
+      }
+      if (strategy == HeapQuiescing.HEAP_OCCUPANCY && (occupancy < 0 || occupancy > PERCENT)) {
+         throw new RuntimeException("Heap occupancy for quiescing needs to be between 0 and 100, but was " + occupancy);
+      }
+      this.strategy = strategy;
+      this.interval = interval;
+      this.occupancy = occupancy;
+   }
+
+   /**
+    * Creates the quiescer for a test as configured by its annotation.
+    *
+    * @param annotation Configuration of the test, may be null
+    * @return The quiescer
+    */
+   public static HeapQuiescer create(final PerformanceTest annotation) {
+      if (annotation == null) {
+         return new HeapQuiescer(HeapQuiescing.EVERY_ITERATION, 0, 0);
+      }
+      return new HeapQuiescer(annotation.heapQuiescing(), annotation.heapQuiescingInterval(), annotation.heapQuiescingOccupancy());
+   }
+
+   /**
+    * Quiesces the heap before all executions of a measurement, if the strategy requires it.
+    *
+    * @param warmup Whether the executions are warmup executions
+    */
+   public void beforeMeasurement(final boolean warmup) {
+      if (strategy == HeapQuiescing.EVERY_ITERATION || (strategy == HeapQuiescing.BETWEEN_WARMUP_AND_MEASUREMENT && !warmup)) {
+         System.gc();
+      }
+   }
+
+   /**
+    * Quiesces the heap before an execution, if the strategy requires it.
+    *
+    * @param requiredByCollectors Whether a collector requires a garbage collection before every execution
+    */
+   public void beforeIteration(final boolean requiredByCollectors) {
+      switch (strategy) {
+      case EVERY_ITERATION:
+         if (requiredByCollectors) {
+            System.gc();
+         }
+         break;
+      case EVERY_N_ITERATIONS:
+         if (iteration % interval == 0) {
+            System.gc();
+         }
+         break;
+      case HEAP_OCCUPANCY:
+         if (isOccupancyExceeded()) {
+            System.gc();
+         }
+         break;
+      default:
+         break;
+      }
+      iteration++;
+   }
+
+   /**
+    * Quiesces the heap after all executions of a measurement, if the strategy requires it.
+    */
+   public void afterMeasurement() {
+      if (strategy == HeapQuiescing.EVERY_ITERATION) {
+         System.gc();
+      }
+   }
+
+   private boolean isOccupancyExceeded() {
+      final Runtime runtime = Runtime.getRuntime();
+      final long used = runtime.totalMemory() - runtime.freeMemory();
+      final long max = runtime.maxMemory() != Long.MAX_VALUE ? runtime.maxMemory() : runtime.totalMemory();
+      return used * PERCENT > max * occupancy;
+   }
+
+   public HeapQuiescing getStrategy() {
+      return strategy;
+   }
+
+   /**
+    * Returns the strategy including its parameter, e.g. EVERY_N_ITERATIONS(100), as it is saved in the result.
+    */
+   @Override
+   public String toString() {
+      switch (strategy) {
+      case EVERY_N_ITERATIONS:
+         return strategy + "(" + interval + ")";
+      case HEAP_OCCUPANCY:
+         return strategy + "(" + occupancy + "%)";
+      default:
+         return strategy.toString();
+      }
+   }
+}
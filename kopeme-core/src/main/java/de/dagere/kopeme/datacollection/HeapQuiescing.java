@@ -0,0 +1,32 @@
+package de.dagere.kopeme.datacollection;
+
+/**
+ * Strategies for quiescing the heap by {@link System#gc()}, so garbage of earlier executions does not disturb the measurement. Forcing a garbage collection
+ * is expensive: for short executions, it dominates the duration of the test by orders of magnitude.
+ *
+ * @author reichelt
+ *
+ */
+public enum HeapQuiescing {
+   /**
+    * Collects garbage before every execution if a collector requires it (like the {@link TimeDataCollector} and the {@link RAMUsageCollector} do), and before
+    * and after all executions; this is the behaviour of earlier versions.
+    */
+   EVERY_ITERATION,
+   /**
+    * Never collects garbage.
+    */
+   NEVER,
+   /**
+    * Collects garbage before every n-th execution, starting with the first.
+    */
+   EVERY_N_ITERATIONS,
+   /**
+    * Collects garbage before an execution if the used heap exceeds the given percentage of the maximum heap.
+    */
+   HEAP_OCCUPANCY,
+   /**
+    * Collects garbage only once after the warmup, before the executions which are measured.
+    */
+   BETWEEN_WARMUP_AND_MEASUREMENT;
+}
@@ -0,0 +1,15 @@
+package de.dagere.kopeme.datacollection;
+
+/**
+ * Saves the count of involuntary context switches of the experiment thread during an execution, i.e. how often it was preempted by the scheduler,
+ * from <code>/proc/thread-self/status</code>.
+ *
+ * @author reichelt
+ *
+ */
+public final class InvoluntaryContextSwitchCollector extends ProcValueCollector {
+
+   public InvoluntaryContextSwitchCollector() {
+      super("status", "nonvoluntary_ctxt_switches:", true);
+   }
+}
@@ -0,0 +1,40 @@
+package de.dagere.kopeme.datacollection;
+
+/**
+ * Saves the effective parallelism of an execution, i.e. the CPU time of all threads of the thread group of the experiment thread (see
+ * {@link ThreadGroupCPUCollector}) divided by the wall clock time. Like for the {@link CPUUsageCollector}, the value is multiplied by 1000 for readability,
+ * so a single busy thread results in 1000.
+ *
+ * @author reichelt
+ *
+ */
+public final class ParallelismCollector extends DataCollector {
+
+   private static final int MULTIPLICATOR_FOR_READABILITY = 1000;
+
+   private final ThreadGroupCounter counter = new ThreadGroupCounter(ThreadGroupCPUCollector::getCpuTime);
+   private long startTime = 0;
+   private long cpuTime = 0, time = 0;
+
+   @Override
+   public int getPriority() {
+      return MIDDLE_COLLECTOR_PRIORITY;
+   }
+
+   @Override
+   public void startCollection() {
+      counter.start(Thread.currentThread().getThreadGroup());
+      startTime = System.nanoTime();
+   }
+
+   @Override
+   public void stopCollection() {
+      time = System.nanoTime() - startTime;
+      cpuTime = counter.stop();
+   }
+
+   @Override
+   public long getValue() {
+      return time > 0 ? (MULTIPLICATOR_FOR_READABILITY * cpuTime) / time : 0;
+   }
+}
@@ -0,0 +1,159 @@
+package de.dagere.kopeme.datacollection;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A file of the Linux proc file system, which is kept open and read into a preallocated buffer, so reading and parsing it does not allocate and the
+ * collectors using it do not disturb the measurement. Files below <code>/proc/thread-self</code> keep referring to the thread which opened them.
+ *
+ * @author reichelt
+ *
+ */
+final class ProcFile {
+
+   private static final Logger LOG = LogManager.getLogger(ProcFile.class);
+
+   private static final int BUFFER_SIZE = 4096;
+
+   private final FileChannel channel;
+   private final byte[] content = new byte[BUFFER_SIZE];
+   private final ByteBuffer buffer = ByteBuffer.wrap(content);
+   private int length = 0;
+
+   private ProcFile(final FileChannel channel) {
+      this.channel = channel;
+   }
+
+   /**
+    * Opens the given file.
+    *
+    * @param path Path of the file, e.g. /proc/self/io
+    * @return The opened file, or null if the file is not available, e.g. because the operating system is not Linux
+    */
+   static ProcFile open(final String path) {
+      final Path file = Paths.get(path);
+      try {
+         return new ProcFile(FileChannel.open(file, StandardOpenOption.READ));
+      } catch (IOException | UnsupportedOperationException | SecurityException e) {
+         LOG.debug("Could not open {}: {}", path, e.getMessage());
+         return null;
+      }
+   }
+
+   /**
+    * Reads the current content of the file.
+    *
+    * @return Whether the file could be read
+    */
+   boolean read() {
+      buffer.clear();
+      try {
+         long position = 0;
+         int read;
+         while (buffer.hasRemaining() && (read = channel.read(buffer, position)) > 0) {
+            position += read;
+         }
+         length = buffer.position();
+         return true;
+      } catch (IOException e) {
+         length = 0;
+         return false;
+      }
+   }
+
+   /**
+    * Returns the number with the given index of the whitespace-separated numbers of the file, e.g. of /proc/thread-self/schedstat.
+    *
+    * @param index Index of the number
+    * @return The number, or -1 if the file has less numbers
+    */
+   long getField(final int index) {
+      int field = 0;
+      int i = 0;
+      while (i < length) {
+         while (i < length && isWhitespace(content[i])) {
+            i++;
+         }
+         if (i == length) {
+            break;
+         }
+         if (field == index) {
+            return parseNumber(i);
+         }
+         while (i < length && !isWhitespace(content[i])) {
+            i++;
+         }
+         field++;
+      }
+      return -1;
+   }
+
+   /**
+    * Returns the number following the given key at the start of a line, e.g. <code>read_bytes:</code> of /proc/self/io.
+    *
+    * @param key Key including the separator, as ASCII bytes
+    * @return The number, or -1 if the key is not found
+    */
+   long getValue(final byte[] key) {
+      int lineStart = 0;
+      while (lineStart < length) {
+         if (startsWith(lineStart, key)) {
+            int i = lineStart + key.length;
+            while (i < length && isWhitespace(content[i])) {
+               i++;
+            }
+            return parseNumber(i);
+         }
+         while (lineStart < length && content[lineStart] != '\n') {
+            lineStart++;
+         }
+         lineStart++;
+      }
+      return -1;
+   }
+
+   /**
+    * Closes the file.
+    */
+   void close() {
+      try {
+         channel.close();
+      } catch (IOException e) {
+         e.printStackTrace();
+      }
+   }
+
+   private boolean startsWith(final int start, final byte[] key) {
+      if (start + key.length > length) {
+         return false;
+      }
+      for (int i = 0; i < key.length; i++) {
+         if (content[start + i] != key[i]) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private long parseNumber(final int start) {
+      long value = 0;
+      int i = start;
+      while (i < length && content[i] >= '0' && content[i] <= '9') {
+         value = value * 10 + (content[i] - '0');
+         i++;
+      }
+      return i > start ? value : -1;
+   }
+
+   private static boolean isWhitespace(final byte b) {
+      return b == ' ' || b == '\t' || b == '\n';
+   }
+}
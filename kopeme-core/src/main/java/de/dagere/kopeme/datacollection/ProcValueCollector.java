@@ -0,0 +1,83 @@
+package de.dagere.kopeme.datacollection;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Base class for collectors of a counter of a file of the Linux proc file system, e.g. <code>read_bytes</code> of <code>/proc/self/io</code>. The file is
+ * opened when the collector is started the first time and parsed without allocation before and after every execution; it is closed by {@link #close()}. On
+ * other operating systems, the value is always 0.
+ *
+ * @author reichelt
+ *
+ */
+abstract class ProcValueCollector extends DataCollector {
+
+   private final byte[] key;
+   private final ThreadProcFile threadFile;
+   private final String processPath;
+   private ProcFile processFile;
+   private boolean processFileOpened = false;
+   private long start = 0, stop = 0;
+
+   /**
+    * Creates the collector.
+    *
+    * @param file Name of the file, e.g. io
+    * @param key Key of the counter in the file, including the separator, e.g. read_bytes:
+    * @param perThread Whether the file is read from <code>/proc/thread-self</code> for the thread running the measurement instead of from
+    *           <code>/proc/self</code> for the process
+    */
+   ProcValueCollector(final String file, final String key, final boolean perThread) {
+      this.key = key.getBytes(StandardCharsets.US_ASCII);
+      threadFile = perThread ? new ThreadProcFile(file) : null;
+      processPath = perThread ? null : "/proc/self/" + file;
+   }
+
+   @Override
+   public int getPriority() {
+      return MIDDLE_COLLECTOR_PRIORITY;
+   }
+
+   @Override
+   public void startCollection() {
+      if (processPath != null && !processFileOpened) {
+         processFile = ProcFile.open(processPath);
+         processFileOpened = true;
+      }
+      start = getCounter(threadFile != null ? threadFile.readCurrentThread() : readProcessFile());
+   }
+
+   @Override
+   public void stopCollection() {
+      stop = getCounter(threadFile != null ? threadFile.read() : readProcessFile());
+   }
+
+   @Override
+   public long getValue() {
+      return stop - start;
+   }
+
+   @Override
+   public void close() {
+      if (threadFile != null) {
+         threadFile.close();
+      }
+      if (processFile != null) {
+         processFile.close();
+         processFile = null;
+      }
+      processFileOpened = false;
+   }
+
+   private ProcFile readProcessFile() {
+      return processFile != null && processFile.read() ? processFile : null;
+   }
+
+   private long getCounter(final ProcFile file) {
+      if (file == null) {
+         return 0;
+      }
+      final long value = file.getValue(key);
+      return value != -1 ? value : 0;
+   }
+}
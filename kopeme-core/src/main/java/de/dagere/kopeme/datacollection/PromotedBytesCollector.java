@@ -0,0 +1,34 @@
+package de.dagere.kopeme.datacollection;
+
+/**
+ * Saves the bytes promoted to the old generation by the garbage collections during an execution. Since the garbage collection notifications are delivered
+ * asynchronously, the promotion of a collection at the end of an execution may be attributed to the next execution.
+ *
+ * @author reichelt
+ *
+ */
+public final class PromotedBytesCollector extends DataCollector {
+
+   private final GCActivityMonitor monitor = GCActivityMonitor.getInstance();
+   private long start = 0, stop = 0;
+
+   @Override
+   public int getPriority() {
+      return LOW_DATACOLLECTOR_PRIORITY;
+   }
+
+   @Override
+   public void startCollection() {
+      start = monitor.getPromotedBytes();
+   }
+
+   @Override
+   public void stopCollection() {
+      stop = monitor.getPromotedBytes();
+   }
+
+   @Override
+   public long getValue() {
+      return stop - start;
+   }
+}
@@ -22,7 +22,6 @@ public final class RAMUsageCollector extends DataCollector {
 
 	@Override
 	public void startCollection() {
-		System.gc();
 		usedStart = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
 
 	}
@@ -37,4 +36,9 @@ public final class RAMUsageCollector extends DataCollector {
 	public long getValue() {
 		return value;
 	}
+
+	@Override
+	public boolean isHeapQuiescingRequired() {
+		return true;
+	}
 }
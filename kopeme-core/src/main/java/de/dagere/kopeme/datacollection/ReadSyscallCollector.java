@@ -0,0 +1,14 @@
+package de.dagere.kopeme.datacollection;
+
+/**
+ * Saves the count of read system calls of the process during an execution, from <code>syscr</code> of <code>/proc/self/io</code>.
+ *
+ * @author reichelt
+ *
+ */
+public final class ReadSyscallCollector extends ProcValueCollector {
+
+   public ReadSyscallCollector() {
+      super("io", "syscr:", false);
+   }
+}
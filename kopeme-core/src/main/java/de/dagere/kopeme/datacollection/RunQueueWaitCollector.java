@@ -0,0 +1,42 @@
+package de.dagere.kopeme.datacollection;
+
+/**
+ * Saves the time in nanoseconds the experiment thread has been waiting for a CPU during an execution although it was runnable, as accounted by the Linux
+ * scheduler in <code>/proc/thread-self/schedstat</code>. A high value shows that the execution was disturbed by other processes, e.g. on a shared CI
+ * runner. On other operating systems, the value is always 0.
+ *
+ * @author reichelt
+ *
+ */
+public final class RunQueueWaitCollector extends DataCollector {
+
+   private final ThreadProcFile schedstat = new ThreadProcFile("schedstat");
+   private long start = 0, stop = 0;
+
+   @Override
+   public int getPriority() {
+      return MIDDLE_COLLECTOR_PRIORITY;
+   }
+
+   @Override
+   public void startCollection() {
+      final ProcFile file = schedstat.readCurrentThread();
+      start = file != null ? file.getField(1) : 0;
+   }
+
+   @Override
+   public void stopCollection() {
+      final ProcFile file = schedstat.read();
+      stop = file != null ? file.getField(1) : 0;
+   }
+
+   @Override
+   public long getValue() {
+      return stop - start;
+   }
+
+   @Override
+   public void close() {
+      schedstat.close();
+   }
+}
@@ -0,0 +1,51 @@
+package de.dagere.kopeme.datacollection;
+
+/**
+ * Mean and variance of a series of values, updated in constant time and without allocation per value using Welford's algorithm. This allows checking the
+ * relative standard deviation after every iteration of a test, e.g. for stopping early.
+ *
+ * @author reichelt
+ *
+ */
+public final class RunningStatistics {
+
+   private long count = 0;
+   private double mean = 0.0;
+   private double squaredDifferences = 0.0;
+
+   public void addValue(final double value) {
+      count++;
+      final double delta = value - mean;
+      mean += delta / count;
+      squaredDifferences += delta * (value - mean);
+   }
+
+   public long getCount() {
+      return count;
+   }
+
+   public double getMean() {
+      return mean;
+   }
+
+   /**
+    * Returns the sample variance, or NaN if less than two values have been added.
+    */
+   public double getVariance() {
+      return count > 1 ? squaredDifferences / (count - 1) : Double.NaN;
+   }
+
+   public double getStandardDeviation() {
+      return Math.sqrt(getVariance());
+   }
+
+   public double getRelativeStandardDeviation() {
+      return getStandardDeviation() / mean;
+   }
+
+   public void clear() {
+      count = 0;
+      mean = 0.0;
+      squaredDifferences = 0.0;
+   }
+}
@@ -0,0 +1,49 @@
+package de.dagere.kopeme.datacollection;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves the time in nanoseconds the experiment thread has been running on a CPU during an execution, as accounted by the Linux scheduler in
+ * <code>/proc/thread-self/schedstat</code>. This is the software event task-clock of perf_event; it is available in virtual machines without hardware
+ * performance counters. On other operating systems, the value is always 0.
+ *
+ * @author reichelt
+ *
+ */
+public final class TaskClockCollector extends DataCollector {
+
+   private final ThreadProcFile schedstat = new ThreadProcFile("schedstat");
+   private long start = 0, stop = 0;
+
+   @Override
+   public int getPriority() {
+      return MIDDLE_COLLECTOR_PRIORITY;
+   }
+
+   @Override
+   public void startCollection() {
+      final ProcFile file = schedstat.readCurrentThread();
+      start = file != null ? file.getField(0) : 0;
+   }
+
+   @Override
+   public void stopCollection() {
+      final ProcFile file = schedstat.read();
+      stop = file != null ? file.getField(0) : 0;
+   }
+
+   @Override
+   public TimeUnit getDurationUnit() {
+      return TimeUnit.NANOSECONDS;
+   }
+
+   @Override
+   public long getValue() {
+      return stop - start;
+   }
+
+   @Override
+   public void close() {
+      schedstat.close();
+   }
+}
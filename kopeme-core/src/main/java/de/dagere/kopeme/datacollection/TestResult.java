@@ -9,7 +9,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+import org.HdrHistogram.Histogram;
 import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -17,10 +19,10 @@ import org.hamcrest.Matchers;
 import org.junit.Assert;
 
 import de.dagere.kopeme.Checker;
+import de.dagere.kopeme.datacollection.tempfile.ResultColumns;
 import de.dagere.kopeme.datacollection.tempfile.ResultTempWriter;
 import de.dagere.kopeme.datacollection.tempfile.WrittenResultReader;
 import de.dagere.kopeme.generated.Result.Fulldata;
-import de.dagere.kopeme.generated.Result.Fulldata.Value;
 
 /**
  * Saves the Data Collectors, and therefore has access to the current results of the tests. Furthermore, by invoking stopCollection, the historical values are inserted into the
@@ -32,6 +34,12 @@ import de.dagere.kopeme.generated.Result.Fulldata.Value;
 public final class TestResult {
    public static final int BOUNDARY_SAVE_FILE = 1000;
 
+   /**
+    * Highest value (one hour in nanoseconds) and precision of latency histograms; higher values are recorded as highest value.
+    */
+   public static final long HISTOGRAM_HIGHEST_VALUE = TimeUnit.HOURS.toNanos(1);
+   public static final int HISTOGRAM_SIGNIFICANT_DIGITS = 3;
+
    private static final Logger LOG = LogManager.getLogger(TestResult.class);
 
    protected Checker checker;
@@ -41,6 +49,15 @@ public final class TestResult {
    private ResultTempWriter writer;
    private int executionTimes;
    private final DataCollector[] sortedCollectors;
+   private Histogram[] histograms = null;
+   private final RunningStatistics[] runningStatistics;
+   private final boolean warmup;
+   private int savedExecutions = 0;
+   private int steadyStateIteration = -1;
+   private final boolean heapQuiescingRequired;
+   private HeapQuiescer heapQuiescer = new HeapQuiescer(HeapQuiescing.EVERY_ITERATION, 0, 0);
+   private int batchInvocations = 0;
+   private long batchBaseline = 0;
 
    /**
     * Initializes the TestResult with a Testcase-Name and the executionTimes.
@@ -51,6 +68,7 @@ public final class TestResult {
    public TestResult(final String methodName, final int executionTimes, final DataCollectorList collectors, boolean warmup) {
       this.methodName = methodName;
       this.executionTimes = executionTimes;
+      this.warmup = warmup;
 
       final Collection<DataCollector> dcCollection = collectors.getDataCollectors().values();
       sortedCollectors = dcCollection.toArray(new DataCollector[0]);
@@ -61,9 +79,16 @@ public final class TestResult {
          }
       };
       Arrays.sort(sortedCollectors, comparator);
+      runningStatistics = new RunningStatistics[sortedCollectors.length];
+      boolean quiescingRequired = false;
+      for (int i = 0; i < sortedCollectors.length; i++) {
+         runningStatistics[i] = new RunningStatistics();
+         quiescingRequired |= sortedCollectors[i].isHeapQuiescingRequired();
+      }
+      heapQuiescingRequired = quiescingRequired;
       
       try {
-         writer = new ResultTempWriter(warmup);
+         writer = new ResultTempWriter(warmup, executionTimes);
          writer.setDataCollectors(sortedCollectors);
          reader = new WrittenResultReader(writer.getTempFile());
       } catch (IOException e) {
@@ -132,6 +157,36 @@ public final class TestResult {
       LOG.debug("All measurements fine.");
    }
 
+   /**
+    * Enables recording the values of all collectors which support histograms (see {@link DataCollector#isHistogramSupported()}) into fixed-size latency
+    * histograms. Needs to be called before the measurement starts.
+    */
+   public void enableHistograms() {
+      histograms = new Histogram[sortedCollectors.length];
+      for (int i = 0; i < sortedCollectors.length; i++) {
+         if (sortedCollectors[i].isHistogramSupported()) {
+            histograms[i] = new Histogram(HISTOGRAM_HIGHEST_VALUE, HISTOGRAM_SIGNIFICANT_DIGITS);
+         }
+      }
+   }
+
+   /**
+    * Returns the latency histogram of the given collector.
+    * 
+    * @param key Name of the collector
+    * @return Histogram of the collector, or null if histograms are not enabled or not supported by the collector
+    */
+   public Histogram getHistogram(final String key) {
+      if (histograms != null) {
+         for (int i = 0; i < sortedCollectors.length; i++) {
+            if (sortedCollectors[i].getName().equals(key)) {
+               return histograms[i];
+            }
+         }
+      }
+      return null;
+   }
+
    public void beforeRun() {
       
    }
@@ -140,6 +195,7 @@ public final class TestResult {
     * Starts the collection of Data for all Datacollectors.
     */
    public void startCollection() {
+      heapQuiescer.beforeIteration(heapQuiescingRequired);
       writeStartTime();
       for (final DataCollector dc : sortedCollectors) {
          dc.startCollection();
@@ -160,6 +216,58 @@ public final class TestResult {
          dc.stopCollection();
       }
       writer.writeValues(sortedCollectors);
+      for (int i = 0; i < sortedCollectors.length; i++) {
+         runningStatistics[i].addValue(sortedCollectors[i].getValue());
+      }
+      if (histograms != null) {
+         recordHistograms();
+      }
+   }
+
+   /**
+    * Checks whether the relative standard deviation of the values measured so far is below the given maximum for all given collectors, so the measurement can
+    * be stopped early. This only uses the running statistics updated in {@link #stopCollection()}, so it may be called after every iteration.
+    * 
+    * @param maximalRelativeStandardDeviation Maximum relative standard deviation by collector name
+    * @return Whether all relative standard deviations are below their maximum
+    */
+   public boolean isRelativeStandardDeviationBelow(final Map<String, Double> maximalRelativeStandardDeviation) {
+      for (final Map.Entry<String, Double> entry : maximalRelativeStandardDeviation.entrySet()) {
+         final RunningStatistics statistics = getRunningStatistics(entry.getKey());
+         if (statistics == null || statistics.getCount() < 2) {
+            return false;
+         }
+         final double relativeStandardDeviation = statistics.getRelativeStandardDeviation();
+         LOG.trace("Collector: {} Relative standard deviation: {} Aim: {}", entry.getKey(), relativeStandardDeviation, entry.getValue());
+         if (!(relativeStandardDeviation < entry.getValue())) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Returns the running statistics over all values measured so far of the given collector.
+    * 
+    * @param key Name of the collector
+    * @return Running statistics, or null if the collector is not used
+    */
+   public RunningStatistics getRunningStatistics(final String key) {
+      for (int i = 0; i < sortedCollectors.length; i++) {
+         if (sortedCollectors[i].getName().equals(key)) {
+            return runningStatistics[i];
+         }
+      }
+      return null;
+   }
+
+   private void recordHistograms() {
+      for (int i = 0; i < histograms.length; i++) {
+         if (histograms[i] != null) {
+            final long value = sortedCollectors[i].getValue();
+            histograms[i].recordValue(Math.max(0, Math.min(value, HISTOGRAM_HIGHEST_VALUE)));
+         }
+      }
    }
 
    /**
@@ -171,6 +279,7 @@ public final class TestResult {
    }
 
    public void finalizeCollection(final Throwable thrownException) {
+      closeCollectors();
       writer.finalizeCollection();
       if (executionTimes < BOUNDARY_SAVE_FILE) {
          reader.read(thrownException, getKeys());
@@ -215,46 +324,82 @@ public final class TestResult {
       return reader.getCollectorSummary(key).getMax();
    }
 
+   /**
+    * Returns the full data of the given performance measure. If the {@link CompilationCollector} or the {@link GCActivityCollector} are used, all values
+    * whose execution overlapped a JIT compilation or a garbage collection are marked, so they can be excluded by the analysis.
+    * 
+    * @param key Name of the performance measure
+    * @return Full data, or only the name of the file containing the data if there are too many values for keeping them in memory
+    */
    public Fulldata getFulldata(String key) {
-      final Fulldata fd = new Fulldata();
       if (executionTimes < BOUNDARY_SAVE_FILE) {
-         for (int i = 0; i < reader.getRealValues().size(); i++) {
-            final Value v = new Value();
-            v.setStart(reader.getExecutionStartTimes().get(i));
-            v.setValue(reader.getRealValues().get(i).get(key));
-            fd.getValue().add(v);
-         }
+         return reader.getColumns().createFulldata(key, 0);
       } else {
+         final Fulldata fd = new Fulldata();
          fd.setFileName(writer.getTempFile().getAbsolutePath());
+         return fd;
       }
-
-      return fd;
    }
 
    public void clearFulldata(String key) {
       reader.clear(key);
    }
 
+   /**
+    * Returns the values of all iterations of the given collector, which are only available if they have been read into memory, i.e. if less than
+    * {@link #BOUNDARY_SAVE_FILE} executions are done.
+    * 
+    * @param key Name of the collector
+    * @return Values of the collector
+    */
    public List<Long> getValues(String key) {
-      List<Long> currentValues = new ArrayList<>();
-      for (int i = 0; i < reader.getRealValues().size(); i++) {
-         currentValues.add(reader.getRealValues().get(i).get(key));
+      final ResultColumns columns = reader.getColumns();
+      final long[] values = columns != null ? columns.getColumn(key) : null;
+      final int length = values != null ? columns.getColumnLength(key) : 0;
+      final List<Long> currentValues = new ArrayList<>(length);
+      for (int i = 0; i < length; i++) {
+         currentValues.add(values[i]);
       }
       return currentValues;
    }
 
+   /**
+    * Replaces the values of the given collector after some of them have been removed, e.g. as outliers. Only the full data is changed; the value of the
+    * collector is still the mean of all measured values.
+    * 
+    * @param key Name of the collector
+    * @param currentValues Remaining values, in the order of {@link #getValues(String)}
+    */
    public void setValues(final String key, final List<Long> currentValues) {
-      if (currentValues.size() > reader.getRealValues().size()) {
-         throw new RuntimeException("Internal Error: Count of new values should not exceed count of executions");
-      }
-      for (int i = 0; i < reader.getRealValues().size(); i++) {
-         final Map<String, Long> currentEntry = reader.getRealValues().get(i);
-         if (currentValues.size() > i) {
-            currentEntry.put(key, currentValues.get(i));
-         } else {
-            currentEntry.remove(i);
-         }
+      final long[] values = new long[currentValues.size()];
+      int i = 0;
+      for (final Long value : currentValues) {
+         values[i++] = value;
       }
+      reader.setValues(key, values, values.length);
+   }
+
+   /**
+    * Returns a given percentile of the currently measured values of a collector.
+    * 
+    * @param key Name of the performance measure
+    * @param percentile Percentage for the percentile
+    * @return Percentile of the currently measured values
+    */
+   public double getPercentile(final String key, final double percentile) {
+      return reader.getPercentiles(key, percentile)[0];
+   }
+
+   /**
+    * Returns several percentiles of the currently measured values of a collector. They are exact if the values are kept in memory, i.e. if less than
+    * {@link #BOUNDARY_SAVE_FILE} executions are done, and approximated otherwise.
+    * 
+    * @param key Name of the performance measure
+    * @param percentiles Percentages for the percentiles
+    * @return Percentiles in the order of the given percentages
+    */
+   public double[] getPercentiles(final String key, final double... percentiles) {
+      return reader.getPercentiles(key, percentiles);
    }
 
    /**
@@ -275,6 +420,40 @@ public final class TestResult {
       this.realExecutions = realExecutions;
    }
 
+   /**
+    * Returns whether this result only contains values of warmup executions.
+    */
+   public boolean isWarmup() {
+      return warmup;
+   }
+
+   /**
+    * Sets the count of planned executions which have not been executed, since the test has been stopped early because the relative standard deviation was low
+    * enough.
+    * 
+    * @param savedExecutions Count of saved executions
+    */
+   public void setSavedExecutions(final int savedExecutions) {
+      this.savedExecutions = savedExecutions;
+   }
+
+   public int getSavedExecutions() {
+      return savedExecutions;
+   }
+
+   /**
+    * Sets the count of warmup iterations after which the durations reached a steady state (see {@link WarmupController}).
+    * 
+    * @param steadyStateIteration Count of warmup iterations, or -1 if no steady state has been reached
+    */
+   public void setSteadyStateIteration(final int steadyStateIteration) {
+      this.steadyStateIteration = steadyStateIteration;
+   }
+
+   public int getSteadyStateIteration() {
+      return steadyStateIteration;
+   }
+
    public String getMethodName() {
       return methodName;
    }
@@ -284,8 +463,85 @@ public final class TestResult {
       return collectorSummary.getStandardDeviation() / collectorSummary.getMean();
    }
 
+   /**
+    * Returns how often the measuring thread had to wait until values were written to disk.
+    * 
+    * @return Count of stalls
+    */
+   public int getWriteStalls() {
+      return writer.getStalls();
+   }
+
+   /**
+    * Sets that every execution is a batch of invocations whose count has been calibrated (see {@link de.dagere.kopeme.BatchCalibrator}).
+    * 
+    * @param batchInvocations Count of invocations per execution
+    * @param batchBaseline Duration of an execution of an empty test in nanoseconds
+    */
+   public void setBatching(final int batchInvocations, final long batchBaseline) {
+      this.batchInvocations = batchInvocations;
+      this.batchBaseline = batchBaseline;
+   }
+
+   /**
+    * Returns the calibrated count of invocations per execution.
+    * 
+    * @return Count of invocations, or 0 if the executions are not batched
+    */
+   public int getBatchInvocations() {
+      return batchInvocations;
+   }
+
+   public long getBatchBaseline() {
+      return batchBaseline;
+   }
+
+   /**
+    * Returns the duration of one invocation of the test, i.e. the mean duration of an execution divided by the invocations per execution. The baseline is
+    * only subtracted from the wall clock time (see {@link DataCollector#isWallClockTime()}), since it is measured as wall clock time; other durations, e.g.
+    * the CPU time, still contain the overhead of the batch. This is only available if the executions are batched and the collector measures the duration of
+    * the execution (see {@link DataCollector#getDurationUnit()}).
+    * 
+    * @param key Name of the performance measure
+    * @return Duration of one invocation in nanoseconds, or NaN if not available
+    */
+   public double getInvocationTime(final String key) {
+      if (batchInvocations == 0) {
+         return Double.NaN;
+      }
+      for (final DataCollector dc : sortedCollectors) {
+         if (dc.getName().equals(key) && dc.getDurationUnit() != null) {
+            final double nanoseconds = getValue(key).doubleValue() * dc.getDurationUnit().toNanos(1);
+            final long baseline = dc.isWallClockTime() ? batchBaseline : 0;
+            return (nanoseconds - baseline) / batchInvocations;
+         }
+      }
+      return Double.NaN;
+   }
+
+   public HeapQuiescer getHeapQuiescer() {
+      return heapQuiescer;
+   }
+
+   /**
+    * Sets the quiescer which decides before which executions garbage is collected; by default, garbage is collected before every execution if a collector
+    * requires it (see {@link HeapQuiescing#EVERY_ITERATION}).
+    * 
+    * @param heapQuiescer Quiescer for the executions of this result
+    */
+   public void setHeapQuiescer(final HeapQuiescer heapQuiescer) {
+      this.heapQuiescer = heapQuiescer;
+   }
+
    public void deleteTempFile() {
+      closeCollectors();
       reader.deleteTempFile();
    }
 
+   private void closeCollectors() {
+      for (final DataCollector dc : sortedCollectors) {
+         dc.close();
+      }
+   }
+
 }
@@ -0,0 +1,35 @@
+package de.dagere.kopeme.datacollection;
+
+/**
+ * Saves the bytes allocated during an execution by all threads of the thread group of the experiment thread, which is the dedicated thread group of the
+ * {@link de.dagere.kopeme.TimeBoundExecution}, so allocations of worker threads started by the test are included. Allocations of threads which ended during
+ * the execution are included up to the last sample of the {@link ThreadGroupCounter}.
+ *
+ * @author reichelt
+ *
+ */
+public final class ThreadGroupAllocationCollector extends DataCollector {
+
+   private final ThreadGroupCounter counter = new ThreadGroupCounter(AllocationCollector::getAllocatedBytes);
+   private long value = 0;
+
+   @Override
+   public int getPriority() {
+      return MIDDLE_COLLECTOR_PRIORITY;
+   }
+
+   @Override
+   public void startCollection() {
+      counter.start(Thread.currentThread().getThreadGroup());
+   }
+
+   @Override
+   public void stopCollection() {
+      value = counter.stop();
+   }
+
+   @Override
+   public long getValue() {
+      return value;
+   }
+}
@@ -0,0 +1,83 @@
+package de.dagere.kopeme.datacollection;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Saves the CPU time in nanoseconds used during an execution by all threads of the thread group of the experiment thread, which is the dedicated thread
+ * group of the {@link de.dagere.kopeme.TimeBoundExecution}. In contrast to the {@link CPUUsageCollector}, this includes the work of executors and other
+ * worker threads started by the test; threads which ended during the execution are included up to the last sample of the {@link ThreadGroupCounter}.
+ *
+ * @author reichelt
+ *
+ */
+public final class ThreadGroupCPUCollector extends DataCollector {
+
+   private static final Logger LOG = LogManager.getLogger(ThreadGroupCPUCollector.class);
+
+   private static final ThreadMXBean THREAD_BEAN = initThreadBean();
+
+   private final ThreadGroupCounter counter = new ThreadGroupCounter(ThreadGroupCPUCollector::getCpuTime);
+   private long value = 0;
+
+   private static ThreadMXBean initThreadBean() {
+      final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      if (bean.isThreadCpuTimeSupported()) {
+         if (!bean.isThreadCpuTimeEnabled()) {
+            bean.setThreadCpuTimeEnabled(true);
+         }
+         return bean;
+      }
+      LOG.error("Measuring CPU time of threads is not supported by this JVM, CPU time will be 0");
+      return null;
+   }
+
+   /**
+    * Returns the CPU time of the given thread in nanoseconds.
+    *
+    * @param threadId Id of the thread
+    * @return CPU time, 0 if the JVM does not support measuring the CPU time, or -1 if the thread is not alive
+    */
+   static long getCpuTime(final long threadId) {
+      return THREAD_BEAN != null ? THREAD_BEAN.getThreadCpuTime(threadId) : 0;
+   }
+
+   /**
+    * Returns the CPU time of the given thread in user mode in nanoseconds.
+    *
+    * @param threadId Id of the thread
+    * @return User time, 0 if the JVM does not support measuring the CPU time, or -1 if the thread is not alive
+    */
+   static long getUserTime(final long threadId) {
+      return THREAD_BEAN != null ? THREAD_BEAN.getThreadUserTime(threadId) : 0;
+   }
+
+   @Override
+   public int getPriority() {
+      return MIDDLE_COLLECTOR_PRIORITY;
+   }
+
+   @Override
+   public void startCollection() {
+      counter.start(Thread.currentThread().getThreadGroup());
+   }
+
+   @Override
+   public void stopCollection() {
+      value = counter.stop();
+   }
+
+   @Override
+   public TimeUnit getDurationUnit() {
+      return TimeUnit.NANOSECONDS;
+   }
+
+   @Override
+   public long getValue() {
+      return value;
+   }
+}
@@ -0,0 +1,105 @@
+package de.dagere.kopeme.datacollection;
+
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Measures the difference of a per-thread counter, e.g. the allocated bytes or the CPU time, summed over all threads of a thread group during an execution.
+ *
+ * The JVM offers no way to be notified when a thread ends, and the counters of ended threads can not be read anymore. Therefore, the {@link ThreadGroupSampler}
+ * takes snapshots of the thread group while the execution is running; when a thread is missing from a snapshot, its counter from the previous snapshot is
+ * added. So the counter of ended threads is included except for their last sampling interval. The sampler reads the counters without holding the lock of this
+ * counter, so stopping the measurement does not wait for a running sample.
+ *
+ * @author reichelt
+ *
+ */
+final class ThreadGroupCounter {
+
+   private final ThreadGroupSnapshot start;
+   private ThreadGroupSnapshot last;
+   private ThreadGroupSnapshot current;
+   /**
+    * Snapshot which is only used by the sampler thread.
+    */
+   private ThreadGroupSnapshot sampled;
+   private ThreadGroup group;
+   private int measurement = 0;
+   private long ended = 0;
+
+   ThreadGroupCounter(final LongUnaryOperator counter) {
+      start = new ThreadGroupSnapshot(counter);
+      last = new ThreadGroupSnapshot(counter);
+      current = new ThreadGroupSnapshot(counter);
+      sampled = new ThreadGroupSnapshot(counter);
+      ThreadGroupSampler.register(this);
+   }
+
+   /**
+    * Starts the measurement for the given thread group.
+    */
+   void start(final ThreadGroup group) {
+      final boolean restarted;
+      synchronized (this) {
+         restarted = this.group != null;
+         this.group = group;
+         measurement++;
+         ended = 0;
+         start.take(group);
+         last.take(group);
+      }
+      if (!restarted) {
+         ThreadGroupSampler.counterStarted();
+      }
+   }
+
+   /**
+    * Takes a snapshot of the running measurement to remember the counters of threads which end before the measurement is stopped; does nothing if no
+    * measurement is running. The snapshot is taken without the lock and discarded if the measurement has been stopped in the meantime.
+    */
+   void sample() {
+      final ThreadGroup sampledGroup;
+      final int sampledMeasurement;
+      synchronized (this) {
+         sampledGroup = group;
+         sampledMeasurement = measurement;
+      }
+      if (sampledGroup == null) {
+         return;
+      }
+      sampled.take(sampledGroup);
+      synchronized (this) {
+         if (group == sampledGroup && measurement == sampledMeasurement) {
+            ended += last.getEndedDifference(sampled, start);
+            final ThreadGroupSnapshot swap = last;
+            last = sampled;
+            sampled = swap;
+         }
+      }
+   }
+
+   /**
+    * Stops the measurement.
+    *
+    * @return Difference of the counter, summed over all threads
+    */
+   long stop() {
+      final long difference;
+      final boolean started;
+      synchronized (this) {
+         started = group != null;
+         if (started) {
+            current.take(group);
+            ended += last.getEndedDifference(current, start);
+            final ThreadGroupSnapshot swap = last;
+            last = current;
+            current = swap;
+            group = null;
+         }
+         difference = last.getDifference(start) + ended;
+      }
+      if (started) {
+         ThreadGroupSampler.counterStopped();
+      }
+      return difference;
+   }
+}
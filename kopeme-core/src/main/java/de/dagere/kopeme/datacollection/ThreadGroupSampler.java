@@ -0,0 +1,89 @@
+package de.dagere.kopeme.datacollection;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Daemon thread which periodically samples all running {@link ThreadGroupCounter}s. The thread is created in the top-level thread group, so it is not
+ * counted in the thread group of the experiment itself. Counters are registered once when they are created and only weakly referenced, so starting and
+ * stopping a measurement does not change the registry and discarded counters are removed by the sampler. The sampler waits without waking up while no counter
+ * is started.
+ *
+ * @author reichelt
+ *
+ */
+final class ThreadGroupSampler implements Runnable {
+
+   private static final Logger LOG = LogManager.getLogger(ThreadGroupSampler.class);
+
+   /**
+    * Interval between two samples in milliseconds.
+    */
+   static final int SAMPLE_INTERVAL = 10;
+
+   private static final List<WeakReference<ThreadGroupCounter>> COUNTERS = new CopyOnWriteArrayList<>();
+   private static Thread samplerThread;
+   private static int startedCounters = 0;
+
+   static void register(final ThreadGroupCounter counter) {
+      COUNTERS.add(new WeakReference<>(counter));
+      synchronized (COUNTERS) {
+         if (samplerThread == null) {
+            ThreadGroup root = Thread.currentThread().getThreadGroup();
+            while (root.getParent() != null) {
+               root = root.getParent();
+            }
+            samplerThread = new Thread(root, new ThreadGroupSampler(), "kopeme-threadgroup-sampler");
+            samplerThread.setDaemon(true);
+            samplerThread.start();
+         }
+      }
+   }
+
+   /**
+    * Notifies the sampler that a counter has been started, so sampling is resumed.
+    */
+   static void counterStarted() {
+      synchronized (COUNTERS) {
+         startedCounters++;
+         COUNTERS.notifyAll();
+      }
+   }
+
+   /**
+    * Notifies the sampler that a counter has been stopped; if no counter is started anymore, sampling is paused.
+    */
+   static void counterStopped() {
+      synchronized (COUNTERS) {
+         startedCounters--;
+      }
+   }
+
+   @Override
+   public void run() {
+      try {
+         while (true) {
+            synchronized (COUNTERS) {
+               while (startedCounters == 0) {
+                  COUNTERS.wait();
+               }
+            }
+            Thread.sleep(SAMPLE_INTERVAL);
+            for (final WeakReference<ThreadGroupCounter> reference : COUNTERS) {
+               final ThreadGroupCounter counter = reference.get();
+               if (counter != null) {
+                  counter.sample();
+               } else {
+                  COUNTERS.remove(reference);
+               }
+            }
+         }
+      } catch (final InterruptedException e) {
+         LOG.debug("Thread group sampler has been interrupted");
+      }
+   }
+}
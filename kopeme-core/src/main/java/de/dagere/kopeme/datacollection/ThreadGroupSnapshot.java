@@ -0,0 +1,96 @@
+package de.dagere.kopeme.datacollection;
+
+import java.util.Arrays;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Snapshot of a per-thread counter, e.g. the allocated bytes or the CPU time, for all threads of a thread group. The difference of two snapshots is the sum of
+ * the differences of all threads alive at the later snapshot; threads started in between count with their full value. Threads which ended in between are
+ * not included, see {@link ThreadGroupCounter} for including them. Taking a snapshot does not allocate unless the thread group grows, so the snapshots can be
+ * taken around every execution.
+ *
+ * @author reichelt
+ *
+ */
+final class ThreadGroupSnapshot {
+
+   private static final int INITIAL_SIZE = 16;
+
+   private final LongUnaryOperator counter;
+   private Thread[] threads = new Thread[INITIAL_SIZE];
+   private long[] ids = new long[INITIAL_SIZE];
+   private long[] values = new long[INITIAL_SIZE];
+   private int count = 0;
+
+   /**
+    * Creates a snapshot.
+    *
+    * @param counter Reads the counter of the thread with the given id; returns a negative value if the thread is not alive anymore
+    */
+   ThreadGroupSnapshot(final LongUnaryOperator counter) {
+      this.counter = counter;
+   }
+
+   /**
+    * Reads the counters of all threads of the given thread group, including the threads of its subgroups.
+    */
+   void take(final ThreadGroup group) {
+      int enumerated = group.enumerate(threads, true);
+      while (enumerated == threads.length) {
+         threads = new Thread[threads.length * 2];
+         enumerated = group.enumerate(threads, true);
+      }
+      if (ids.length < enumerated) {
+         ids = new long[threads.length];
+         values = new long[threads.length];
+      }
+      for (int i = 0; i < enumerated; i++) {
+         ids[i] = threads[i].getId();
+         threads[i] = null;
+      }
+      Arrays.sort(ids, 0, enumerated);
+      count = 0;
+      for (int i = 0; i < enumerated; i++) {
+         final long value = counter.applyAsLong(ids[i]);
+         if (value >= 0) {
+            ids[count] = ids[i];
+            values[count] = value;
+            count++;
+         }
+      }
+   }
+
+   /**
+    * Returns the sum of the counter differences of all threads of this snapshot to the given earlier snapshot.
+    */
+   long getDifference(final ThreadGroupSnapshot earlier) {
+      long difference = 0;
+      for (int i = 0; i < count; i++) {
+         final int earlierIndex = Arrays.binarySearch(earlier.ids, 0, earlier.count, ids[i]);
+         difference += earlierIndex >= 0 ? values[i] - earlier.values[earlierIndex] : values[i];
+      }
+      return difference;
+   }
+
+   /**
+    * Returns the sum of the counter differences to the given start snapshot of all threads of this snapshot which are not part of the given later snapshot
+    * anymore, i.e. of the threads which ended in between. Their counters are only known up to this snapshot.
+    */
+   long getEndedDifference(final ThreadGroupSnapshot later, final ThreadGroupSnapshot start) {
+      long difference = 0;
+      for (int i = 0; i < count; i++) {
+         if (Arrays.binarySearch(later.ids, 0, later.count, ids[i]) < 0) {
+            final int startIndex = Arrays.binarySearch(start.ids, 0, start.count, ids[i]);
+            difference += startIndex >= 0 ? values[i] - start.values[startIndex] : values[i];
+         }
+      }
+      return difference;
+   }
+
+   /**
+    * Returns the count of threads of the snapshot.
+    */
+   int getThreadCount() {
+      return count;
+   }
+}
@@ -0,0 +1,41 @@
+package de.dagere.kopeme.datacollection;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves the CPU time in user mode in nanoseconds used during an execution by all threads of the thread group of the experiment thread, like the
+ * {@link ThreadGroupCPUCollector} does for the total CPU time.
+ *
+ * @author reichelt
+ *
+ */
+public final class ThreadGroupUserTimeCollector extends DataCollector {
+
+   private final ThreadGroupCounter counter = new ThreadGroupCounter(ThreadGroupCPUCollector::getUserTime);
+   private long value = 0;
+
+   @Override
+   public int getPriority() {
+      return MIDDLE_COLLECTOR_PRIORITY;
+   }
+
+   @Override
+   public void startCollection() {
+      counter.start(Thread.currentThread().getThreadGroup());
+   }
+
+   @Override
+   public void stopCollection() {
+      value = counter.stop();
+   }
+
+   @Override
+   public TimeUnit getDurationUnit() {
+      return TimeUnit.NANOSECONDS;
+   }
+
+   @Override
+   public long getValue() {
+      return value;
+   }
+}
@@ -0,0 +1,61 @@
+package de.dagere.kopeme.datacollection;
+
+/**
+ * A file below <code>/proc/thread-self</code> of the thread which runs the measurement. The file is reopened only if the measurement is started in another
+ * thread or after the file has been closed, so usually no file is opened during the measurement.
+ *
+ * @author reichelt
+ *
+ */
+final class ThreadProcFile {
+
+   private final String path;
+   private Thread thread;
+   private ProcFile file;
+
+   /**
+    * Creates the file.
+    *
+    * @param name Name of the file in <code>/proc/thread-self</code>, e.g. schedstat
+    */
+   ThreadProcFile(final String name) {
+      path = "/proc/thread-self/" + name;
+   }
+
+   /**
+    * Reads the file of the current thread; needs to be called at the start of the measurement.
+    *
+    * @return The file, or null if it is not available
+    */
+   ProcFile readCurrentThread() {
+      final Thread current = Thread.currentThread();
+      if (current != thread) {
+         if (file != null) {
+            file.close();
+         }
+         thread = current;
+         file = ProcFile.open(path);
+      }
+      return read();
+   }
+
+   /**
+    * Reads the file of the thread which started the measurement.
+    *
+    * @return The file, or null if it is not available
+    */
+   ProcFile read() {
+      return file != null && file.read() ? file : null;
+   }
+
+   /**
+    * Closes the file; it is reopened by the next call of {@link #readCurrentThread()}.
+    */
+   void close() {
+      if (file != null) {
+         file.close();
+         file = null;
+      }
+      thread = null;
+   }
+}
@@ -1,5 +1,7 @@
 package de.dagere.kopeme.datacollection;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Saves time in nanoseconds.
  * 
@@ -29,7 +31,6 @@ public final class TimeDataCollector extends DataCollector {
 
 	@Override
 	public void startCollection() {
-		System.gc();
 		start = System.nanoTime();
 	}
 
@@ -43,6 +44,26 @@ public final class TimeDataCollector extends DataCollector {
 		return summarizedValue != 0 ? summarizedValue : (stop - start);
 	}
 
+	@Override
+	public boolean isHeapQuiescingRequired() {
+		return true;
+	}
+
+	@Override
+	public boolean isHistogramSupported() {
+		return true;
+	}
+
+	@Override
+	public TimeUnit getDurationUnit() {
+		return TimeUnit.NANOSECONDS;
+	}
+
+	@Override
+	public boolean isWallClockTime() {
+		return true;
+	}
+
 	@Override
 	public void startOrRestartCollection() {
 		summarizedValue += (stop - start);
@@ -1,5 +1,7 @@
 package de.dagere.kopeme.datacollection;
 
+import java.util.concurrent.TimeUnit;
+
 public final class TimeDataCollectorNoGC extends DataCollector {
 
    private long start;
@@ -35,6 +37,21 @@ public final class TimeDataCollectorNoGC extends DataCollector {
       return summarizedValue != 0 ? summarizedValue : (stop - start);
    }
 
+   @Override
+   public boolean isHistogramSupported() {
+      return true;
+   }
+
+   @Override
+   public TimeUnit getDurationUnit() {
+      return TimeUnit.NANOSECONDS;
+   }
+
+   @Override
+   public boolean isWallClockTime() {
+      return true;
+   }
+
    @Override
    public void startOrRestartCollection() {
       summarizedValue += (stop - start);
@@ -0,0 +1,15 @@
+package de.dagere.kopeme.datacollection;
+
+/**
+ * Saves the count of voluntary context switches of the experiment thread during an execution, e.g. because of blocking I/O or locks, from
+ * <code>/proc/thread-self/status</code>.
+ *
+ * @author reichelt
+ *
+ */
+public final class VoluntaryContextSwitchCollector extends ProcValueCollector {
+
+   public VoluntaryContextSwitchCollector() {
+      super("status", "voluntary_ctxt_switches:", true);
+   }
+}
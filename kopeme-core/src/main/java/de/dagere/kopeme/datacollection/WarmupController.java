@@ -0,0 +1,250 @@
+package de.dagere.kopeme.datacollection;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.dagere.kopeme.annotations.PerformanceTest;
+
+/**
+ * Decides when the warmup of a test is finished by watching the durations of the warmup iterations. The durations of the last two windows of iterations are
+ * kept; the warmup is finished when the execution is in a steady state, i.e. if
+ * <ul>
+ * <li>the medians of both windows do not differ and</li>
+ * <li>the least-squares slope of the current window, extrapolated over the window, does not differ from zero.</li>
+ * </ul>
+ * A difference only counts if it is relevant, i.e. above the maximum relative difference of the median, and significant, i.e. above twice its standard error,
+ * which is estimated from the median absolute deviation of the current window. So noisy tests, whose medians never get closer than the maximum relative
+ * difference, are also detected as steady as soon as there is no trend anymore. Comparing medians instead of means makes the detection robust against single
+ * outliers, e.g. caused by garbage collection or compilation; the slope detects durations which are still decreasing slowly, e.g. while more methods get
+ * compiled.
+ *
+ * Additionally, the warmup can be required to be quiet regarding JIT compilation (see {@link #setQuietCompilationIterations(int)}): then the warmup is only finished
+ * if the total compilation time of the JVM did not change during the last iterations, so late compilations do not disturb the measurement.
+ *
+ * Adding a value does not allocate, so the controller can be called after every iteration.
+ *
+ * @author reichelt
+ *
+ */
+public final class WarmupController {
+
+   private static final Logger LOG = LogManager.getLogger(WarmupController.class);
+
+   public static final int DEFAULT_WINDOW_SIZE = 10;
+   public static final double DEFAULT_MAX_RELATIVE_DIFFERENCE = 0.05;
+
+   /**
+    * Count of warmup iterations needed before a steady state can be detected with the default window size, i.e. two windows.
+    */
+   public static final int MIN_STEADY_STATE_ITERATIONS = 2 * DEFAULT_WINDOW_SIZE;
+
+   /**
+    * Factor for estimating the standard deviation of normal distributed values from their median absolute deviation.
+    */
+   private static final double MAD_TO_STANDARD_DEVIATION = 1.4826;
+
+   /**
+    * Factor for the standard error of the median of normal distributed values relative to the standard error of their mean.
+    */
+   private static final double MEDIAN_STANDARD_ERROR = 1.2533;
+
+   private final int windowSize;
+   private final double maxRelativeDifference;
+   private final int minIterations, maxIterations;
+
+   private final long[] values;
+   private final long[] sortBuffer;
+   private int iterations = 0;
+   private int steadyStateIteration = -1;
+
+   private boolean detectSteadyState = true;
+   private int quietCompilationIterations = 0;
+   private LongSupplier compilationTimeSource = CompilationCollector::getTotalCompilationTime;
+   private long lastCompilationTime;
+   private int quietIterations = 0;
+
+   /**
+    * Creates a controller with the default window size and maximum relative difference.
+    *
+    * @param minIterations Minimal count of warmup iterations
+    * @param maxIterations Maximal count of warmup iterations; warmup is finished after this count even if no steady state has been reached
+    */
+   public WarmupController(final int minIterations, final int maxIterations) {
+      this(DEFAULT_WINDOW_SIZE, DEFAULT_MAX_RELATIVE_DIFFERENCE, minIterations, maxIterations);
+   }
+
+   /**
+    * Creates a controller.
+    *
+    * @param windowSize Count of iterations of one window
+    * @param maxRelativeDifference Maximum relative difference of the medians and maximum relative change within the window for a steady state
+    * @param minIterations Minimal count of warmup iterations
+    * @param maxIterations Maximal count of warmup iterations; warmup is finished after this count even if no steady state has been reached
+    */
+   public WarmupController(final int windowSize, final double maxRelativeDifference, final int minIterations, final int maxIterations) {
+      if (windowSize < 2) {
+         throw new RuntimeException("Window size needs to be at least 2, but was " + windowSize);
+      }
+      this.windowSize = windowSize;
+      this.maxRelativeDifference = maxRelativeDifference;
+      this.minIterations = minIterations;
+      this.maxIterations = maxIterations;
+      values = new long[2 * windowSize];
+      sortBuffer = new long[windowSize];
+   }
+
+   /**
+    * Creates the controller for the warmup of a test as configured by its annotation. The warmup count of the annotation is not passed, since it is the bound
+    * of the warmup loop of the runners. If it is below {@link #MIN_STEADY_STATE_ITERATIONS}, no steady state can be detected, which is logged as warning.
+    *
+    * @param annotation Configuration of the test
+    * @return The controller, or null if the warmup count is fixed
+    */
+   public static WarmupController create(final PerformanceTest annotation) {
+      if (!annotation.detectSteadyState() && annotation.quietCompilationIterations() == 0) {
+         return null;
+      }
+      if (annotation.detectSteadyState() && annotation.warmup() < MIN_STEADY_STATE_ITERATIONS) {
+         LOG.warn("Steady state detection needs at least {} warmup executions, but only {} are configured; the warmup will not be shortened",
+               MIN_STEADY_STATE_ITERATIONS, annotation.warmup());
+      }
+      final WarmupController controller = new WarmupController(0, 0);
+      controller.setDetectSteadyState(annotation.detectSteadyState());
+      controller.setQuietCompilationIterations(annotation.quietCompilationIterations());
+      return controller;
+   }
+
+   /**
+    * Adds the duration of a warmup iteration.
+    *
+    * @param duration Duration of the iteration
+    * @return Whether the warmup is finished
+    */
+   public boolean addValue(final long duration) {
+      values[iterations % values.length] = duration;
+      iterations++;
+      if (detectSteadyState && steadyStateIteration == -1 && iterations >= values.length && isSteady()) {
+         steadyStateIteration = iterations;
+      }
+      if (quietCompilationIterations > 0) {
+         final long compilationTime = compilationTimeSource.getAsLong();
+         quietIterations = compilationTime == lastCompilationTime ? quietIterations + 1 : 0;
+         lastCompilationTime = compilationTime;
+      }
+      return isFinished();
+   }
+
+   /**
+    * Returns whether the warmup is finished, i.e. whether a steady state has been reached, the compilation has been quiet for the given count of iterations and
+    * the minimal count of iterations is done, or whether the maximal count of iterations is done.
+    */
+   public boolean isFinished() {
+      final boolean steady = !detectSteadyState || steadyStateIteration != -1;
+      final boolean quiet = quietIterations >= quietCompilationIterations;
+      return (steady && quiet && iterations >= minIterations) || (maxIterations > 0 && iterations >= maxIterations);
+   }
+
+   /**
+    * Sets whether the warmup needs to reach a steady state of the durations, which is the default. Disabling this only makes sense if the compilation needs
+    * to be quiet.
+    */
+   public void setDetectSteadyState(final boolean detectSteadyState) {
+      this.detectSteadyState = detectSteadyState;
+   }
+
+   /**
+    * Sets for how many of the last iterations the JIT compiler must not have been active for finishing the warmup. Needs to be called before the first
+    * iteration.
+    *
+    * @param quietCompilationIterations Count of iterations without compilation, 0 if compilation should not be considered
+    */
+   public void setQuietCompilationIterations(final int quietCompilationIterations) {
+      this.quietCompilationIterations = quietCompilationIterations;
+      lastCompilationTime = compilationTimeSource.getAsLong();
+   }
+
+   void setCompilationTimeSource(final LongSupplier compilationTimeSource) {
+      this.compilationTimeSource = compilationTimeSource;
+      lastCompilationTime = compilationTimeSource.getAsLong();
+   }
+
+   /**
+    * Returns the count of warmup iterations after which the steady state has been reached.
+    *
+    * @return Count of iterations, or -1 if no steady state has been reached
+    */
+   public int getSteadyStateIteration() {
+      return steadyStateIteration;
+   }
+
+   public int getIterations() {
+      return iterations;
+   }
+
+   private boolean isSteady() {
+      final int currentStart = iterations - windowSize;
+      final int previousStart = iterations - 2 * windowSize;
+      final double previousMedian = getMedian(previousStart);
+      final double currentMedian = getMedian(currentStart);
+      final double standardDeviation = MAD_TO_STANDARD_DEVIATION * getMedianAbsoluteDeviation(currentStart, currentMedian);
+
+      final double medianError = Math.sqrt(2) * MEDIAN_STANDARD_ERROR * standardDeviation / Math.sqrt(windowSize);
+      if (isChanged(currentMedian - previousMedian, previousMedian, medianError)) {
+         return false;
+      }
+      final double slopeError = standardDeviation / Math.sqrt(getVarianceX()) * (windowSize - 1);
+      return !isChanged(getSlope(currentStart) * (windowSize - 1), currentMedian, slopeError);
+   }
+
+   private boolean isChanged(final double change, final double median, final double standardError) {
+      return Math.abs(change) > maxRelativeDifference * median && Math.abs(change) > 2 * standardError;
+   }
+
+   private double getMedian(final int start) {
+      for (int i = 0; i < windowSize; i++) {
+         sortBuffer[i] = getValue(start + i);
+      }
+      return getSortedMedian();
+   }
+
+   private double getMedianAbsoluteDeviation(final int start, final double median) {
+      for (int i = 0; i < windowSize; i++) {
+         sortBuffer[i] = Math.round(Math.abs(getValue(start + i) - median));
+      }
+      return getSortedMedian();
+   }
+
+   private double getSortedMedian() {
+      Arrays.sort(sortBuffer);
+      final int middle = windowSize / 2;
+      return windowSize % 2 == 1 ? sortBuffer[middle] : (sortBuffer[middle - 1] + sortBuffer[middle]) / 2.0;
+   }
+
+   private double getSlope(final int start) {
+      final double meanX = (windowSize - 1) / 2.0;
+      double meanY = 0;
+      for (int i = 0; i < windowSize; i++) {
+         meanY += getValue(start + i);
+      }
+      meanY /= windowSize;
+      double covariance = 0;
+      for (int i = 0; i < windowSize; i++) {
+         covariance += (i - meanX) * (getValue(start + i) - meanY);
+      }
+      return covariance / getVarianceX();
+   }
+
+   /**
+    * Returns the sum of the squared differences of the iteration indices of a window to their mean.
+    */
+   private double getVarianceX() {
+      return (double) windowSize * (windowSize * windowSize - 1) / 12;
+   }
+
+   private long getValue(final int iteration) {
+      return values[iteration % values.length];
+   }
+}
@@ -0,0 +1,16 @@
+package de.dagere.kopeme.datacollection;
+
+/**
+ * Saves the count of write system calls of the process during an execution, from <code>syscw</code> of <code>/proc/self/io</code>. Since the value is counted
+ * for the whole process, it includes the writes of KoPeMe itself during the execution, i.e. of the thread draining the values of large runs to disk (see
+ * {@link de.dagere.kopeme.datacollection.tempfile.ResultTempWriter}) and of logging.
+ *
+ * @author reichelt
+ *
+ */
+public final class WriteSyscallCollector extends ProcValueCollector {
+
+   public WriteSyscallCollector() {
+      super("io", "syscw:", false);
+   }
+}
@@ -0,0 +1,352 @@
+package de.dagere.kopeme.datacollection.tempfile;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.dagere.kopeme.generated.Result.Fulldata;
+
+/**
+ * Reads a temp file written by {@link ResultTempWriter} in one pass through memory mapped windows of the file. Values are decoded in place (fixed width rows
+ * for the binary format, digits parsed directly from the mapped bytes for the old text format), so reading only the summaries needs constant heap regardless
+ * of the file size. If columns are requested, the values of these collectors are kept in {@link ResultColumns}.
+ *
+ * @author reichelt
+ *
+ */
+public class MappedResultReader {
+
+   private static final Logger LOG = LogManager.getLogger(MappedResultReader.class);
+
+   private static final long WINDOW_SIZE = 1 << 26;
+
+   private final File file;
+
+   private String[] names = new String[0];
+   private SummaryStatistics[] summaries = new SummaryStatistics[0];
+   private PercentileSketch[] sketches = new PercentileSketch[0];
+   private ResultColumns columns = new ResultColumns(names, new boolean[0]);
+
+   private Set<String> keys;
+   private Set<String> columnKeys;
+
+   public MappedResultReader(final File file) {
+      this.file = file;
+   }
+
+   /**
+    * Reads the file, building summaries for the given collectors. For collectors whose values are not kept as columns, a {@link PercentileSketch} is built.
+    *
+    * @param keys Collectors for which summaries should be built
+    * @param columnKeys Collectors whose values should be kept as columns; may be empty for reading with constant heap, null means all collectors
+    */
+   public void read(final Set<String> keys, final Set<String> columnKeys) {
+      this.keys = keys;
+      this.columnKeys = columnKeys;
+      try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+         final long size = channel.size();
+         if (size >= Integer.BYTES && readMagic(channel) == WrittenResultReader.BINARY_MAGIC) {
+            readBinary(channel, size);
+         } else {
+            readText(channel, size);
+         }
+      } catch (IOException e) {
+         e.printStackTrace();
+      }
+      LOG.debug("Read {} iterations from {}", columns.getIterations(), file);
+   }
+
+   private static int readMagic(final FileChannel channel) throws IOException {
+      final ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+      while (magic.hasRemaining() && channel.read(magic, magic.position()) != -1) {
+      }
+      magic.flip();
+      return magic.remaining() == Integer.BYTES ? magic.getInt() : 0;
+   }
+
+   private void readBinary(final FileChannel channel, final long size) throws IOException {
+      final MappedByteBuffer headerBuffer = channel.map(MapMode.READ_ONLY, 0, Math.min(size, WINDOW_SIZE));
+      final int headerEnd;
+      try {
+         headerBuffer.order(ByteOrder.BIG_ENDIAN);
+         headerBuffer.getInt();
+         final int version = headerBuffer.getInt();
+         if (version != WrittenResultReader.BINARY_VERSION) {
+            throw new IOException("Unsupported version of KoPeMe temp file " + file.getAbsolutePath() + ": " + version);
+         }
+         final int collectorCount = headerBuffer.getInt();
+         names = new String[collectorCount];
+         for (int i = 0; i < collectorCount; i++) {
+            final int index = headerBuffer.getInt();
+            final byte[] name = new byte[headerBuffer.getInt()];
+            headerBuffer.get(name);
+            names[index] = new String(name, StandardCharsets.UTF_8);
+         }
+         headerEnd = headerBuffer.position();
+      } finally {
+         unmap(headerBuffer);
+      }
+      initCollectors();
+
+      final int rowBytes = (names.length + 1) * Long.BYTES;
+      final long rowsPerWindow = Math.max(1, WINDOW_SIZE / rowBytes);
+      long position = headerEnd;
+      while (position + Long.BYTES <= size) {
+         final long windowSize = Math.min(size - position, rowsPerWindow * rowBytes);
+         final MappedByteBuffer window = channel.map(MapMode.READ_ONLY, position, windowSize);
+         try {
+            while (window.remaining() >= rowBytes) {
+               columns.addStart(window.getLong());
+               for (int collector = 0; collector < names.length; collector++) {
+                  addValue(collector, window.getLong());
+               }
+               columns.finishIteration();
+            }
+            if (window.remaining() >= Long.BYTES) {
+               columns.addStart(window.getLong());
+               LOG.debug("Last iteration has not been finished");
+            }
+         } finally {
+            unmap(window);
+         }
+         position += windowSize;
+      }
+   }
+
+   private void readText(final FileChannel channel, final long size) throws IOException {
+      final TextParser parser = new TextParser();
+      long position = 0;
+      while (position < size) {
+         final long windowSize = Math.min(size - position, WINDOW_SIZE);
+         final MappedByteBuffer window = channel.map(MapMode.READ_ONLY, position, windowSize);
+         try {
+            while (window.hasRemaining()) {
+               parser.accept(window.get());
+            }
+         } finally {
+            unmap(window);
+         }
+         position += windowSize;
+      }
+      parser.accept((byte) '\n');
+      parser.finishIteration();
+   }
+
+   /**
+    * Parses the old text format byte by byte; the state is kept across window borders, so lines may be split over two windows.
+    */
+   private class TextParser {
+      private final Map<Integer, String> indexedNames = new HashMap<>();
+      private final StringBuilder header = new StringBuilder();
+      private boolean lineStart = true, isHeader = false, hasNumber = false, hasIndex = false, negative = false;
+      private boolean collectorsInitialized = false, valuesInIteration = false;
+      private long number = 0;
+      private int index = 0;
+
+      void accept(final byte current) {
+         if (current == '\n') {
+            finishLine();
+            return;
+         }
+         if (lineStart) {
+            lineStart = false;
+            if (current == WrittenResultReader.COLLECTOR_INDEX.charAt(0)) {
+               isHeader = true;
+               return;
+            }
+         }
+         if (isHeader) {
+            header.append((char) (current & 0xFF));
+         } else if (current >= '0' && current <= '9') {
+            number = number * 10 + (current - '0');
+            hasNumber = true;
+         } else if (current == '-') {
+            negative = true;
+         } else if (current == '=') {
+            index = (int) getNumber();
+            hasIndex = true;
+            number = 0;
+            hasNumber = false;
+            negative = false;
+         }
+      }
+
+      private long getNumber() {
+         return negative ? -number : number;
+      }
+
+      private void finishLine() {
+         if (isHeader) {
+            final String collectorString = new String(header.toString().getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.UTF_8)
+                  .substring(WrittenResultReader.COLLECTOR_INDEX.length() - 1);
+            final String[] values = collectorString.split("=");
+            indexedNames.put(Integer.parseInt(values[0]), values[1]);
+            header.setLength(0);
+         } else if (hasNumber) {
+            if (!collectorsInitialized) {
+               initIndexedCollectors();
+            }
+            if (hasIndex) {
+               addValue(index, getNumber());
+               valuesInIteration = true;
+            } else {
+               finishIteration();
+               columns.addStart(getNumber());
+            }
+         }
+         lineStart = true;
+         isHeader = false;
+         hasNumber = false;
+         hasIndex = false;
+         negative = false;
+         number = 0;
+      }
+
+      void finishIteration() {
+         if (valuesInIteration) {
+            columns.finishIteration();
+            valuesInIteration = false;
+         }
+      }
+
+      private void initIndexedCollectors() {
+         int count = 0;
+         for (Integer collectorIndex : indexedNames.keySet()) {
+            count = Math.max(count, collectorIndex + 1);
+         }
+         names = new String[count];
+         for (Map.Entry<Integer, String> entry : indexedNames.entrySet()) {
+            names[entry.getKey()] = entry.getValue();
+         }
+         initCollectors();
+         collectorsInitialized = true;
+      }
+   }
+
+   private void initCollectors() {
+      summaries = new SummaryStatistics[names.length];
+      sketches = new PercentileSketch[names.length];
+      final boolean[] keepColumn = new boolean[names.length];
+      for (int i = 0; i < names.length; i++) {
+         keepColumn[i] = columnKeys == null || columnKeys.contains(names[i]);
+         if (keys.contains(names[i])) {
+            summaries[i] = new SummaryStatistics();
+            if (!keepColumn[i]) {
+               sketches[i] = new PercentileSketch();
+            }
+         }
+      }
+      columns = new ResultColumns(names, keepColumn);
+   }
+
+   private void addValue(final int collector, final long value) {
+      if (summaries[collector] != null) {
+         summaries[collector].addValue(value);
+      }
+      if (sketches[collector] != null) {
+         sketches[collector].addValue(value);
+      }
+      columns.addValue(collector, value);
+   }
+
+   /**
+    * Releases the mapping directly instead of waiting for the garbage collection, so the file can be moved or deleted afterwards (which fails on some operating
+    * systems as long as a mapping exists).
+    */
+   private static void unmap(final MappedByteBuffer buffer) {
+      try {
+         final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+         final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+         final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+         theUnsafe.setAccessible(true);
+         invokeCleaner.invoke(theUnsafe.get(null), buffer);
+      } catch (ReflectiveOperationException | RuntimeException e) {
+         try {
+            final Method cleaner = buffer.getClass().getMethod("cleaner");
+            cleaner.setAccessible(true);
+            final Object cleanerInstance = cleaner.invoke(buffer);
+            if (cleanerInstance != null) {
+               cleanerInstance.getClass().getMethod("clean").invoke(cleanerInstance);
+            }
+         } catch (ReflectiveOperationException | RuntimeException e2) {
+            LOG.trace("Buffer could not be unmapped, waiting for garbage collection");
+         }
+      }
+   }
+
+   public SummaryStatistics getCollectorSummary(final String collectorName) {
+      final int index = columns.indexOf(collectorName);
+      return index != -1 ? summaries[index] : null;
+   }
+
+   /**
+    * Returns the percentile sketch of a collector, which is only built if the values of the collector are not kept as column.
+    */
+   public PercentileSketch getPercentileSketch(final String collectorName) {
+      final int index = columns.indexOf(collectorName);
+      return index != -1 ? sketches[index] : null;
+   }
+
+   /**
+    * Returns a copy of the values of a collector, which needs to be requested as column when reading.
+    *
+    * @param collectorName Name of the collector
+    * @return Values of all finished iterations
+    */
+   public long[] getColumn(final String collectorName) {
+      final long[] column = columns.getColumn(collectorName);
+      return column != null ? Arrays.copyOf(column, columns.getColumnLength(collectorName)) : null;
+   }
+
+   /**
+    * Returns a copy of the execution start times, which are only kept if at least one collector has been requested as column.
+    *
+    * @return Start times of all started iterations or null, if no column has been requested
+    */
+   public long[] getExecutionStartTimes() {
+      final long[] startTimes = columns.getStartTimes();
+      return startTimes != null ? Arrays.copyOf(startTimes, columns.getStartedIterations()) : null;
+   }
+
+   /**
+    * Returns the columns, containing the values of all collectors that have been requested as columns.
+    */
+   public ResultColumns getColumns() {
+      return columns;
+   }
+
+   /**
+    * Returns the count of finished iterations, i.e. iterations where all values have been written.
+    */
+   public int getIterations() {
+      return columns.getIterations();
+   }
+
+   /**
+    * Returns the count of started iterations; this may exceed the count of finished iterations if the test was interrupted.
+    */
+   public int getStartedIterations() {
+      return columns.getStartedIterations();
+   }
+
+   public Fulldata createFulldata(final int warmup, final String collectorName) {
+      return columns.createFulldata(collectorName, warmup);
+   }
+
+}
@@ -0,0 +1,56 @@
+package de.dagere.kopeme.datacollection.tempfile;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Approximates percentiles of values that are not kept in memory. The values are recorded in HdrHistogram instances with a relative error of
+ * 10^-{@link #SIGNIFICANT_DIGITS}; since these only support positive values, negative values (e.g. decreasing memory usage) are recorded negated in a second
+ * histogram. Sketches can be merged, e.g. for combining the values of several VM starts.
+ *
+ * @author reichelt
+ *
+ */
+public class PercentileSketch {
+
+   public static final int SIGNIFICANT_DIGITS = 3;
+
+   private final Histogram positive = new Histogram(SIGNIFICANT_DIGITS);
+   private final Histogram negative = new Histogram(SIGNIFICANT_DIGITS);
+
+   public void addValue(final long value) {
+      if (value >= 0) {
+         positive.recordValue(value);
+      } else {
+         negative.recordValue(value == Long.MIN_VALUE ? Long.MAX_VALUE : -value);
+      }
+   }
+
+   public void add(final PercentileSketch other) {
+      positive.add(other.positive);
+      negative.add(other.negative);
+   }
+
+   public long getCount() {
+      return positive.getTotalCount() + negative.getTotalCount();
+   }
+
+   /**
+    * Returns the approximated percentile, using the nearest rank.
+    * 
+    * @param percentile Percentage for the percentile, between 0 and 100
+    * @return Approximated percentile or {@link Double#NaN}, if no value has been added
+    */
+   public double getPercentile(final double percentile) {
+      final long count = getCount();
+      if (count == 0) {
+         return Double.NaN;
+      }
+      final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+      final long negativeCount = negative.getTotalCount();
+      if (rank <= negativeCount) {
+         return -negative.getValueAtPercentile(100.0 * (negativeCount - rank + 1) / negativeCount);
+      } else {
+         return positive.getValueAtPercentile(100.0 * (rank - negativeCount) / positive.getTotalCount());
+      }
+   }
+}
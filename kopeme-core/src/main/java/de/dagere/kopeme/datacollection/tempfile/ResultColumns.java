@@ -0,0 +1,231 @@
+package de.dagere.kopeme.datacollection.tempfile;
+
+import java.util.Arrays;
+
+import de.dagere.kopeme.datacollection.CompilationCollector;
+import de.dagere.kopeme.datacollection.GCActivityCollector;
+import de.dagere.kopeme.generated.Result.Fulldata;
+import de.dagere.kopeme.generated.Result.Fulldata.Value;
+
+/**
+ * Columnar storage of the values of all iterations: one growable long array per collector index and one long array of execution start times. Columns of
+ * collectors which are not needed may be omitted, so only their summaries are built; if no column is kept, the start times are only counted, so reading
+ * needs constant heap.
+ *
+ * @author reichelt
+ *
+ */
+public class ResultColumns {
+
+   private static final int INITIAL_SIZE = 1024;
+
+   private final String[] names;
+   private final long[][] columns;
+   private final long[][] replacedColumns;
+   private final int[][] replacedRows;
+   private long[] startTimes;
+   private int iterations = 0;
+   private int startedIterations = 0;
+
+   /**
+    * Creates the columns.
+    *
+    * @param names Names of the collectors, by collector index
+    * @param keepColumn Whether the values of the collector with the given index should be kept
+    */
+   public ResultColumns(final String[] names, final boolean[] keepColumn) {
+      this.names = names;
+      columns = new long[names.length][];
+      replacedColumns = new long[names.length][];
+      replacedRows = new int[names.length][];
+      for (int i = 0; i < names.length; i++) {
+         if (keepColumn[i]) {
+            columns[i] = new long[INITIAL_SIZE];
+            startTimes = new long[INITIAL_SIZE];
+         }
+      }
+   }
+
+   /**
+    * Adds the start time of a new iteration; if no column is kept, the iteration is only counted.
+    */
+   public void addStart(final long start) {
+      if (startTimes != null) {
+         if (startedIterations == startTimes.length) {
+            startTimes = Arrays.copyOf(startTimes, startTimes.length * 2);
+         }
+         startTimes[startedIterations] = start;
+      }
+      startedIterations++;
+   }
+
+   /**
+    * Adds the value of a collector for the current iteration; values of collectors without column are ignored.
+    */
+   public void addValue(final int collector, final long value) {
+      final long[] column = columns[collector];
+      if (column != null) {
+         if (iterations == column.length) {
+            columns[collector] = Arrays.copyOf(column, column.length * 2);
+         }
+         columns[collector][iterations] = value;
+      }
+   }
+
+   /**
+    * Marks the current iteration as finished, i.e. all values have been added.
+    */
+   public void finishIteration() {
+      iterations++;
+   }
+
+   public int indexOf(final String collectorName) {
+      for (int i = 0; i < names.length; i++) {
+         if (names[i].equals(collectorName)) {
+            return i;
+         }
+      }
+      return -1;
+   }
+
+   public String[] getNames() {
+      return names;
+   }
+
+   /**
+    * Returns the backing array of the values of the given collector; only the first {@link #getColumnLength(String)} values are valid.
+    *
+    * @param collectorName Name of the collector
+    * @return Backing array of the column or null, if the column is not present
+    * @see #getColumnLength(String)
+    */
+   public long[] getColumn(final String collectorName) {
+      final int index = indexOf(collectorName);
+      if (index == -1) {
+         return null;
+      }
+      return replacedColumns[index] != null ? replacedColumns[index] : columns[index];
+   }
+
+   /**
+    * Returns the count of valid values of the given collector, which is the count of iterations unless the values have been replaced by
+    * {@link #setColumn(String, long[], int)}.
+    */
+   public int getColumnLength(final String collectorName) {
+      final int index = indexOf(collectorName);
+      return index != -1 && replacedRows[index] != null ? replacedRows[index].length : iterations;
+   }
+
+   /**
+    * Returns the backing array of the execution start times; only the first {@link #getStartedIterations()} values are valid.
+    *
+    * @return Backing array of the start times or null, if no column is kept
+    */
+   public long[] getStartTimes() {
+      return startTimes;
+   }
+
+   /**
+    * Creates the full data of the given collector. If the {@link CompilationCollector} or the {@link GCActivityCollector} have been used, values whose
+    * execution overlapped a JIT compilation or a garbage collection are marked, so they can be excluded by the analysis. If the values have been replaced by
+    * {@link #setColumn(String, long[], int)}, every value keeps the start time and the marks of its own execution.
+    *
+    * @param collectorName Name of the collector
+    * @param from Index of the first value, e.g. to skip the warmup
+    * @return Full data of the collector, which is empty if the column is not present
+    */
+   public Fulldata createFulldata(final String collectorName, final int from) {
+      final Fulldata result = new Fulldata();
+      final int index = indexOf(collectorName);
+      final long[] column = getColumn(collectorName);
+      if (column != null) {
+         final int length = getColumnLength(collectorName);
+         final int[] rows = replacedRows[index];
+         final long[] compilationTimes = getMeasuredColumn(CompilationCollector.class.getName());
+         final long[] gcCounts = getMeasuredColumn(GCActivityCollector.class.getName());
+         for (int i = from; i < length; i++) {
+            final int row = rows != null ? rows[i] : i;
+            final Value value = new Value();
+            value.setStart(startTimes[row]);
+            value.setValue(column[i]);
+            if (compilationTimes != null && compilationTimes[row] > 0) {
+               value.setCompilationTime(compilationTimes[row]);
+            }
+            if (gcCounts != null && gcCounts[row] > 0) {
+               value.setGcCount(gcCounts[row]);
+            }
+            result.getValue().add(value);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Returns the values of the given collector by execution, which are not changed by {@link #setColumn(String, long[], int)}.
+    */
+   private long[] getMeasuredColumn(final String collectorName) {
+      final int index = indexOf(collectorName);
+      return index != -1 ? columns[index] : null;
+   }
+
+   /**
+    * Replaces the values of the given collector after some of them have been removed, e.g. as outliers. The new values need to keep the order of the
+    * measured values, so the execution of every value can be found; the measured values are kept, so the other collectors and the start times still refer
+    * to all executions.
+    *
+    * @param collectorName Name of the collector
+    * @param values New values, which are a subsequence of the current values
+    * @param count Count of valid entries in values
+    */
+   public void setColumn(final String collectorName, final long[] values, final int count) {
+      if (count > iterations) {
+         throw new RuntimeException("Internal Error: Count of new values should not exceed count of executions");
+      }
+      final int index = indexOf(collectorName);
+      if (index != -1 && columns[index] != null) {
+         final long[] current = getColumn(collectorName);
+         final int currentLength = getColumnLength(collectorName);
+         final int[] currentRows = replacedRows[index];
+         final int[] rows = new int[count];
+         int currentIndex = 0;
+         for (int i = 0; i < count; i++) {
+            while (currentIndex < currentLength && current[currentIndex] != values[i]) {
+               currentIndex++;
+            }
+            if (currentIndex == currentLength) {
+               throw new RuntimeException("Internal Error: New values of " + collectorName + " need to be a subsequence of the current values");
+            }
+            rows[i] = currentRows != null ? currentRows[currentIndex] : currentIndex;
+            currentIndex++;
+         }
+         replacedColumns[index] = Arrays.copyOf(values, count);
+         replacedRows[index] = rows;
+      }
+   }
+
+   /**
+    * Removes the values of the given collector, so their memory can be freed.
+    */
+   public void clear(final String collectorName) {
+      final int index = indexOf(collectorName);
+      if (index != -1) {
+         columns[index] = null;
+         replacedColumns[index] = null;
+         replacedRows[index] = null;
+      }
+   }
+
+   /**
+    * Returns the count of finished iterations, i.e. iterations where all values have been added.
+    */
+   public int getIterations() {
+      return iterations;
+   }
+
+   /**
+    * Returns the count of started iterations; this may exceed the count of finished iterations if the test was interrupted.
+    */
+   public int getStartedIterations() {
+      return startedIterations;
+   }
+}
@@ -1,70 +1,263 @@
 package de.dagere.kopeme.datacollection.tempfile;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 
 import de.dagere.kopeme.datacollection.DataCollector;
 
+/**
+ * Writes the values of all iterations into a temporary file. The file is written in the binary format described in {@link WrittenResultReader}: a header
+ * containing the collector index table, followed by one fixed-width row per iteration containing the execution start time and one long per collector.
+ * 
+ * While measuring, the rows are only copied into preallocated long arrays, so recording an iteration neither allocates nor does any I/O. If all planned
+ * executions fit into {@link #MAX_BUFFERED_VALUES}, one array sized from the count of planned executions is used and spilled to the file in
+ * {@link #finalizeCollection()}. Otherwise, two arrays are used: while the measuring thread fills one of them, a low-priority daemon thread drains the other one
+ * to the file. If the measuring thread needs to wait for the disk, this is counted as stall (see {@link #getStalls()}); waiting always happens before the
+ * execution start of an iteration, i.e. outside of the measured interval.
+ *
+ * @author reichelt
+ *
+ */
 public class ResultTempWriter {
 
    public static final String EXECUTIONSTART = "\n" + WrittenResultReader.EXECUTIONSTART;
    public static final String COLLECTOR = "\n" + WrittenResultReader.COLLECTOR;
 
+   private static final int BUFFER_SIZE = 1 << 16;
+
+   /**
+    * Count of rows that is buffered if the count of executions is not known in advance.
+    */
+   private static final int DEFAULT_ROWS = 1024;
+
+   /**
+    * Maximum count of buffered values (32 MB), so very long measurements are written in between instead of filling the heap.
+    */
+   public static final int MAX_BUFFERED_VALUES = 1 << 22;
+
    private final File tempFile;
-   private final BufferedWriter tempFileWriter;
+   private final FileOutputStream tempFileStream;
+   private final FileChannel channel;
+   private final ByteBuffer spillBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+   private final int expectedExecutions;
+   private final int maxBufferedValues;
 
-   public ResultTempWriter(boolean warmup) throws IOException {
+   private long[][] buffers = new long[][] { new long[0] };
+   private long[] values = buffers[0];
+   private int currentBuffer = 0;
+   private int position = 0;
+   private int rowLength = 1;
+   private int stalls = 0;
+
+   private final Object drainLock = new Object();
+   private Thread drainThread;
+   private int pendingBuffer = -1;
+   private int pendingLength = 0;
+   private boolean finished = false;
+
+   public ResultTempWriter(final boolean warmup) throws IOException {
+      this(warmup, DEFAULT_ROWS);
+   }
+
+   /**
+    * Creates the writer.
+    * 
+    * @param warmup Whether the values of warmup executions are written
+    * @param expectedExecutions Count of planned executions, used for sizing the buffer; values below 1 mean that the count is not known
+    * @throws IOException If the temp file could not be created
+    */
+   public ResultTempWriter(final boolean warmup, final int expectedExecutions) throws IOException {
+      this(warmup, expectedExecutions, MAX_BUFFERED_VALUES);
+   }
+
+   ResultTempWriter(final boolean warmup, final int expectedExecutions, final int maxBufferedValues) throws IOException {
       tempFile = Files.createTempFile(warmup ? "kopeme-warmup-" : "kopeme-", ".tmp").toFile();
-      tempFileWriter = new BufferedWriter(new FileWriter(tempFile));
+      tempFileStream = new FileOutputStream(tempFile);
+      channel = tempFileStream.getChannel();
+      this.expectedExecutions = expectedExecutions > 0 ? expectedExecutions : DEFAULT_ROWS;
+      this.maxBufferedValues = maxBufferedValues;
    }
 
    public void setDataCollectors(final DataCollector collectors[]) {
       try {
+         spillBuffer.putInt(WrittenResultReader.BINARY_MAGIC);
+         spillBuffer.putInt(WrittenResultReader.BINARY_VERSION);
+         spillBuffer.putInt(collectors.length);
          for (int index = 0; index < collectors.length; index++) {
-            DataCollector dc = collectors[index];
-            tempFileWriter.write(WrittenResultReader.COLLECTOR_INDEX + index + "=" + dc.getName() + "\n");
+            final byte[] name = collectors[index].getName().getBytes(StandardCharsets.UTF_8);
+            if (spillBuffer.remaining() < 2 * Integer.BYTES + name.length) {
+               writeSpillBuffer();
+            }
+            spillBuffer.putInt(index);
+            spillBuffer.putInt(name.length);
+            spillBuffer.put(name);
          }
+         writeSpillBuffer();
       } catch (IOException e) {
          e.printStackTrace();
       }
+      rowLength = collectors.length + 1;
+      if ((long) expectedExecutions * rowLength <= maxBufferedValues) {
+         buffers = new long[][] { new long[expectedExecutions * rowLength] };
+      } else {
+         final int rows = Math.max(1, maxBufferedValues / 2 / rowLength);
+         buffers = new long[][] { new long[rows * rowLength], new long[rows * rowLength] };
+         drainThread = new Thread(getRootThreadGroup(), this::drain, "kopeme-temp-writer");
+         drainThread.setDaemon(true);
+         drainThread.setPriority(Thread.MIN_PRIORITY);
+         drainThread.start();
+      }
+      currentBuffer = 0;
+      values = buffers[0];
+   }
+
+   /**
+    * Returns the top-level thread group; the drain thread is created there, so it is not counted by the collectors measuring the thread group of the
+    * experiment.
+    */
+   private static ThreadGroup getRootThreadGroup() {
+      ThreadGroup root = Thread.currentThread().getThreadGroup();
+      while (root.getParent() != null) {
+         root = root.getParent();
+      }
+      return root;
    }
 
    public File getTempFile() {
       return tempFile;
    }
 
+   /**
+    * Returns how often the measuring thread had to wait until values were written to the file. This happens if the disk is slower than the measurement when
+    * two buffers are used, or if more executions than planned are done with one buffer.
+    */
+   public int getStalls() {
+      return stalls;
+   }
+
+   /**
+    * Returns whether the values are written to the file by a background thread while measuring.
+    */
+   public boolean isAsynchronous() {
+      return drainThread != null;
+   }
+
    public final void executionStart(final long currentTimeMillis) {
-      try {
-         // tempFileWriter.write(EXECUTIONSTART);
-         tempFileWriter.write(Long.toString(System.currentTimeMillis()));
-         tempFileWriter.write('\n');
-      } catch (IOException e) {
-         e.printStackTrace();
+      if (position + rowLength > values.length) {
+         switchBuffer();
       }
+      values[position++] = currentTimeMillis;
    }
 
    public final void writeValues(final DataCollector collectors[]) {
+      for (int index = 0; index < collectors.length; index++) {
+         values[position++] = collectors[index].getValue();
+      }
+   }
+
+   private void switchBuffer() {
+      if (drainThread == null) {
+         stalls++;
+         spill(values, position);
+      } else {
+         synchronized (drainLock) {
+            if (pendingBuffer != -1) {
+               stalls++;
+               waitForDrain();
+            }
+            pendingBuffer = currentBuffer;
+            pendingLength = position;
+            drainLock.notifyAll();
+         }
+         currentBuffer = 1 - currentBuffer;
+         values = buffers[currentBuffer];
+      }
+      position = 0;
+   }
+
+   private void waitForDrain() {
+      while (pendingBuffer != -1) {
+         try {
+            drainLock.wait();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for writing values", e);
+         }
+      }
+   }
+
+   private void drain() {
+      while (true) {
+         final int buffer;
+         final int length;
+         synchronized (drainLock) {
+            while (pendingBuffer == -1 && !finished) {
+               try {
+                  drainLock.wait();
+               } catch (InterruptedException e) {
+                  e.printStackTrace();
+                  return;
+               }
+            }
+            if (pendingBuffer == -1) {
+               return;
+            }
+            buffer = pendingBuffer;
+            length = pendingLength;
+         }
+         spill(buffers[buffer], length);
+         synchronized (drainLock) {
+            pendingBuffer = -1;
+            drainLock.notifyAll();
+         }
+      }
+   }
+
+   private void spill(final long[] buffer, final int length) {
       try {
-         for (int index = 0; index < collectors.length; index++) {
-            DataCollector dc = collectors[index];
-            // tempFileWriter.write(COLLECTOR);
-            tempFileWriter.write(Integer.toString(index));
-            tempFileWriter.write('=');
-            tempFileWriter.write(Long.toString(dc.getValue()));
-            tempFileWriter.write('\n');
+         for (int i = 0; i < length; i++) {
+            if (!spillBuffer.hasRemaining()) {
+               writeSpillBuffer();
+            }
+            spillBuffer.putLong(buffer[i]);
          }
+         writeSpillBuffer();
       } catch (IOException e) {
          e.printStackTrace();
       }
    }
 
+   private void writeSpillBuffer() throws IOException {
+      spillBuffer.flip();
+      while (spillBuffer.hasRemaining()) {
+         channel.write(spillBuffer);
+      }
+      spillBuffer.clear();
+   }
+
    public final void finalizeCollection() {
+      if (drainThread != null) {
+         synchronized (drainLock) {
+            waitForDrain();
+            finished = true;
+            drainLock.notifyAll();
+         }
+         try {
+            drainThread.join();
+         } catch (InterruptedException e) {
+            e.printStackTrace();
+         }
+      }
+      spill(values, position);
+      position = 0;
       try {
-         tempFileWriter.flush();
-         tempFileWriter.close();
+         channel.close();
+         tempFileStream.close();
       } catch (IOException e) {
          e.printStackTrace();
       }
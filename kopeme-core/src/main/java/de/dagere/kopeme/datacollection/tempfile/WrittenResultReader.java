@@ -1,13 +1,9 @@
 package de.dagere.kopeme.datacollection.tempfile;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -15,9 +11,21 @@ import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import de.dagere.kopeme.PerformanceTestUtils;
 import de.dagere.kopeme.generated.Result.Fulldata;
-import de.dagere.kopeme.generated.Result.Fulldata.Value;
 
+/**
+ * Reads the values written by {@link ResultTempWriter}. Two formats are supported:
+ * <ul>
+ * <li>the binary format, starting with {@link #BINARY_MAGIC}, the format version and the collector index table (index, length of the UTF-8 name, name), followed
+ * by one row per iteration consisting of the execution start and one long per collector</li>
+ * <li>the old text format, where every start time and every collector value is written in its own line, which is still read for old fulldata files</li>
+ * </ul>
+ * The values are kept in {@link ResultColumns}, i.e. one primitive array per collector.
+ *
+ * @author reichelt
+ *
+ */
 public class WrittenResultReader {
 
    private static final Logger LOG = LogManager.getLogger(WrittenResultReader.class);
@@ -27,140 +35,116 @@ public class WrittenResultReader {
    public static final String FINAL_VALUE = "f:";
    public static final String COLLECTOR_INDEX = "i:";
 
+   public static final int BINARY_MAGIC = 0x4B6F5065;
+   public static final int BINARY_VERSION = 1;
+
    private File file;
-   protected List<Map<String, Long>> realValues = null;
-   protected List<Long> executionStartTimes = null;
+   protected ResultColumns columns = null;
    protected Map<String, Number> finalValues = null;
    protected Map<String, SummaryStatistics> collectorSummaries = null;
-   private Map<Integer, String> collectorsIndexed;
+   protected Map<String, PercentileSketch> percentileSketches = null;
 
    public WrittenResultReader(File file) {
       this.file = file;
    }
 
+   /**
+    * Reads all values into columns and builds the summaries of the given collectors.
+    */
    public void read(Throwable exception, Set<String> keys) {
-      initSummaries(keys);
-      readValues();
+      read(keys, null);
       checkValues(exception);
    }
 
    private void checkValues(Throwable exception) {
-      LOG.debug("Count of executions: {}  Values: {}", executionStartTimes.size(), realValues.size());
-      if (executionStartTimes.size() != realValues.size()) {
-         throw new RuntimeException("Count of executions is wrong, expected: " + executionStartTimes.size() + " but got " + realValues.size(), exception);
+      LOG.debug("Count of executions: {}  Values: {}", columns.getStartedIterations(), columns.getIterations());
+      if (columns.getStartedIterations() != columns.getIterations()) {
+         throw new RuntimeException("Count of executions is wrong, expected: " + columns.getStartedIterations() + " but got " + columns.getIterations(), exception);
       }
    }
 
+   /**
+    * Reads only the summaries of the values with constant heap; the values itself are not kept.
+    */
    public void readStreaming(Throwable thrownException, Set<String> keys) {
-      finalValues = new HashMap<>();
-      collectorsIndexed = new HashMap<>();
-      initSummaries(keys);
-
-      try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-         String line;
-         Map<String, Long> currentValues = new HashMap<>();
-         while ((line = reader.readLine()) != null) {
-            if (line.startsWith(COLLECTOR_INDEX)) {
-               String collectorString = line.substring(COLLECTOR_INDEX.length());
-               String[] values = collectorString.split("=");
-               collectorsIndexed.put(Integer.parseInt(values[0]), values[1]);
-            } else if (line.contains("=")) {
-               String[] values = line.split("=");
-               int collectorIndex = Integer.parseInt(values[0]);
-               String collector = collectorsIndexed.get(collectorIndex);
-               collectorSummaries.get(collector).addValue(Long.parseLong(values[1]));
-            } else {
-               // ignore executionstarts when streaming
-            }
-         }
-         finishIteration(currentValues);
-      } catch (FileNotFoundException e) {
-         e.printStackTrace();
-      } catch (IOException e) {
-         e.printStackTrace();
-      }
-      for (String key : keys) {
-         finalValues.put(key, collectorSummaries.get(key).getMean());
-      }
+      read(keys, Collections.emptySet());
    }
 
-   private void initSummaries(Set<String> keys) {
+   private void read(final Set<String> keys, final Set<String> columnKeys) {
+      finalValues = new HashMap<>();
       collectorSummaries = new HashMap<>();
-      for (String key : keys) {
-         collectorSummaries.put(key, new SummaryStatistics());
-      }
-   }
+      percentileSketches = new HashMap<>();
 
-   private void readValues() {
-      realValues = new ArrayList<>();
-      executionStartTimes = new ArrayList<>();
-      finalValues = new HashMap<>();
-      collectorsIndexed = new HashMap<>();
-
-      try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-         String line;
-         Map<String, Long> currentValues = new HashMap<>();
-         while ((line = reader.readLine()) != null) {
-            if (line.startsWith(COLLECTOR_INDEX)) {
-               String collectorString = line.substring(COLLECTOR_INDEX.length());
-               String[] values = collectorString.split("=");
-               collectorsIndexed.put(Integer.parseInt(values[0]), values[1]);
-            } else if (line.contains("=")) {
-               String[] values = line.split("=");
-               int collectorIndex = Integer.parseInt(values[0]);
-               String collector = collectorsIndexed.get(collectorIndex);
-               currentValues.put(collector, Long.parseLong(values[1]));
-               collectorSummaries.get(collector).addValue(Long.parseLong(values[1]));
-            }  else {
-               currentValues = finishIteration(currentValues);
-               Long start = Long.parseLong(line);
-               executionStartTimes.add(start);
-            }
+      final MappedResultReader mappedReader = new MappedResultReader(file);
+      mappedReader.read(keys, columnKeys);
+      columns = mappedReader.getColumns();
+      for (String key : keys) {
+         final SummaryStatistics summary = mappedReader.getCollectorSummary(key);
+         collectorSummaries.put(key, summary != null ? summary : new SummaryStatistics());
+         if (summary != null) {
+            finalValues.put(key, summary.getMean());
          }
-         finishIteration(currentValues);
-      } catch (FileNotFoundException e) {
-         e.printStackTrace();
-      } catch (IOException e) {
-         e.printStackTrace();
-      }
-      if (realValues.size() > 0) {
-         for (String key : realValues.get(0).keySet()) {
-            finalValues.put(key, collectorSummaries.get(key).getMean());
+         final PercentileSketch sketch = mappedReader.getPercentileSketch(key);
+         if (sketch != null) {
+            percentileSketches.put(key, sketch);
          }
       }
    }
 
+   /**
+    * Creates the full data of a collector, marking the executions which overlapped a JIT compilation or a garbage collection (see
+    * {@link ResultColumns#createFulldata(String, int)}).
+    *
+    * @param warmup Count of values to skip
+    * @param currentDatacollector Name of the collector
+    * @return Full data of the collector
+    */
    public Fulldata createFulldata(int warmup, String currentDatacollector) {
-      Fulldata result = new Fulldata();
-      for (int i = warmup; i < realValues.size(); i++) {
-         final Long executionStartTime = executionStartTimes.get(i);
-         final Long value = realValues.get(i).get(currentDatacollector);
-         final Value fulldataValue = new Value();
-         fulldataValue.setStart(executionStartTime);
-         fulldataValue.setValue(value);
-         result.getValue().add(fulldataValue);
-      }
-      return result;
-   }
-
-   private Map<String, Long> finishIteration(Map<String, Long> currentValues) {
-      if (!currentValues.isEmpty()) {
-         realValues.add(currentValues);
-         currentValues = new HashMap<>();
-      }
-      return currentValues;
+      return columns.createFulldata(currentDatacollector, warmup);
    }
 
    public SummaryStatistics getCollectorSummary(final String collectorName) {
       return collectorSummaries.get(collectorName);
    }
 
-   public List<Map<String, Long>> getRealValues() {
-      return realValues;
+   /**
+    * Returns percentiles of the values of a collector. If the values have been read into memory, the percentiles are selected exactly; otherwise, they are
+    * approximated by the {@link PercentileSketch} built while reading.
+    *
+    * @param collectorName Name of the collector
+    * @param percentiles Percentages for the percentiles
+    * @return Percentiles in the order of the given percentages, {@link Double#NaN} if no values are present
+    */
+   public double[] getPercentiles(final String collectorName, final double... percentiles) {
+      final long[] column = columns != null ? columns.getColumn(collectorName) : null;
+      final double[] result = new double[percentiles.length];
+      if (column != null && columns.getColumnLength(collectorName) > 0) {
+         return PerformanceTestUtils.getPercentiles(column, columns.getColumnLength(collectorName), percentiles);
+      } else if (percentileSketches != null && percentileSketches.containsKey(collectorName)) {
+         final PercentileSketch sketch = percentileSketches.get(collectorName);
+         for (int i = 0; i < percentiles.length; i++) {
+            result[i] = sketch.getPercentile(percentiles[i]);
+         }
+      } else {
+         Arrays.fill(result, Double.NaN);
+      }
+      return result;
    }
 
-   public List<Long> getExecutionStartTimes() {
-      return executionStartTimes;
+   /**
+    * Replaces the values of a collector, e.g. after outliers have been removed (see {@link ResultColumns#setColumn(String, long[], int)}). This only changes
+    * the full data; the summary and the final value still contain all measured values.
+    *
+    * @param collectorName Name of the collector
+    * @param values New values
+    * @param count Count of valid entries in values
+    */
+   public void setValues(final String collectorName, final long[] values, final int count) {
+      columns.setColumn(collectorName, values, count);
+   }
+
+   public ResultColumns getColumns() {
+      return columns;
    }
 
    public Map<String, Number> getFinalValues() {
@@ -168,10 +152,8 @@ public class WrittenResultReader {
    }
 
    public void clear(String key) {
-      if (realValues != null) {
-         for (int i = 0; i < realValues.size(); i++) {
-            realValues.get(i).remove(key);
-         }
+      if (columns != null) {
+         columns.clear(key);
       }
    }
 
@@ -0,0 +1,277 @@
+package de.dagere.kopeme.datastorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Map;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.dagere.kopeme.generated.Kopemedata;
+import de.dagere.kopeme.generated.Kopemedata.Testcases;
+import de.dagere.kopeme.generated.Result;
+import de.dagere.kopeme.generated.TestcaseType;
+import de.dagere.kopeme.generated.TestcaseType.Datacollector;
+import de.dagere.kopeme.generated.TestcaseType.Datacollector.Chunk;
+
+/**
+ * Stores results by appending them to a log next to the result file instead of rewriting the whole XML file, so storing a result takes constant time
+ * regardless of the count of results that have already been saved. Every record is a length-prefixed KoPeMe-XML document containing only the new result. The
+ * records are merged in memory when the XML file is loaded (see {@link XMLDataLoader}), so loading never writes; the log is compacted into the XML file on
+ * demand by {@link #compact()} or when the next result is stored by the {@link XMLDataStorer}.
+ * 
+ * The log is locked while it is written or read. Compaction only truncates the log, so an appender which opened the log before and waited for the lock still
+ * writes into the file which is read by the next compaction. Since file locks are held by the whole VM, the threads of one VM are serialized additionally.
+ *
+ * @author reichelt
+ *
+ */
+public final class AppendingDataStorer implements DataStorer {
+
+   private static final Logger LOG = LogManager.getLogger(AppendingDataStorer.class);
+
+   /**
+    * VM property name for using the appending storer instead of the {@link XMLDataStorer}.
+    */
+   public static final String APPEND_RESULTS_PROPNAME = "kopeme.appendresults";
+
+   public static final String LOG_SUFFIX = ".log";
+
+   /**
+    * Visitor for the records of a log.
+    */
+   interface RecordVisitor {
+      /**
+       * Visits one record, i.e. a KoPeMe-XML document.
+       *
+       * @param record Stream of the XML document of the record
+       * @throws JAXBException Thrown if the record could not be read
+       */
+      void visit(InputStream record) throws JAXBException;
+   }
+
+   private static final Object VM_LOCK = new Object();
+
+   private final File file;
+   private final String classname;
+
+   /**
+    * Initializes an AppendingDataStorer.
+    *
+    * @param foldername Folder where the result should be saved
+    * @param classname Name of the test class which was executed
+    * @param methodname Name of the method which was executed
+    */
+   public AppendingDataStorer(final File foldername, final String classname, final String methodname) {
+      file = new File(foldername, methodname + ".xml");
+      this.classname = classname;
+   }
+
+   /**
+    * Returns whether results should be appended, which is configured by the VM property {@link #APPEND_RESULTS_PROPNAME}.
+    *
+    * @return Whether results should be appended
+    */
+   public static boolean isAppendingEnabled() {
+      return Boolean.getBoolean(APPEND_RESULTS_PROPNAME);
+   }
+
+   public static File getLogFile(final File xmlFile) {
+      return new File(xmlFile.getParentFile(), xmlFile.getName() + LOG_SUFFIX);
+   }
+
+   /**
+    * Returns whether results have been appended to the given XML file which are not yet compacted into it.
+    *
+    * @param xmlFile The XML file
+    * @return Whether the log of the file contains records
+    */
+   public static boolean hasAppendedResults(final File xmlFile) {
+      return getLogFile(xmlFile).length() > 0;
+   }
+
+   @Override
+   public void storeValue(final Result result, final String testcase, final String collectorName) {
+      storeValues(testcase, Collections.singletonMap(collectorName, result));
+   }
+
+   /**
+    * Appends the results of all collectors as one record.
+    */
+   @Override
+   public void storeValues(final String testcase, final Map<String, Result> results) {
+      final String cpu = EnvironmentUtil.getCPU();
+      final String memory = EnvironmentUtil.getMemory();
+      final Long chunkStartTime = XMLDataStorer.getChunkStartTime();
+      final Kopemedata record = new Kopemedata();
+      record.setTestcases(new Testcases());
+      record.getTestcases().setClazz(classname);
+      for (final Map.Entry<String, Result> entry : results.entrySet()) {
+         XMLDataStorer.prepareResult(file, entry.getValue(), cpu, memory);
+         XMLDataStorer.addResult(record, entry.getValue(), testcase, entry.getKey(), chunkStartTime);
+      }
+      try {
+         append(record);
+      } catch (JAXBException | IOException e) {
+         e.printStackTrace();
+      }
+      ResultHistoryIndex.addResults(file, classname, testcase, results);
+   }
+
+   private void append(final Kopemedata record) throws JAXBException, IOException {
+      final ByteArrayOutputStream recordStream = new ByteArrayOutputStream();
+      JAXBPool.getFragmentMarshaller().marshal(record, recordStream);
+
+      final ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + recordStream.size());
+      buffer.putInt(recordStream.size());
+      buffer.put(recordStream.toByteArray());
+      buffer.flip();
+
+      final File logFile = getLogFile(file);
+      logFile.getParentFile().mkdirs();
+      synchronized (VM_LOCK) {
+         try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+               FileLock lock = channel.lock()) {
+            while (buffer.hasRemaining()) {
+               channel.write(buffer);
+            }
+         }
+      }
+      LOG.debug("Appended result to {}", logFile.getAbsolutePath());
+   }
+
+   /**
+    * Compacts the log of this storer into the XML file.
+    *
+    * @throws JAXBException Thrown if the XML file or a record could not be read or written
+    */
+   public void compact() throws JAXBException {
+      compact(file);
+   }
+
+   /**
+    * Merges all records of the log of the given XML file into the XML file, writes the XML file and truncates the log. If the log is empty, nothing is done.
+    *
+    * @param xmlFile The XML file
+    * @throws JAXBException Thrown if the XML file or a record could not be read
+    */
+   static void compact(final File xmlFile) throws JAXBException {
+      if (!hasAppendedResults(xmlFile)) {
+         return;
+      }
+      synchronized (VM_LOCK) {
+         compactLocked(xmlFile, getLogFile(xmlFile));
+      }
+   }
+
+   private static void compactLocked(final File xmlFile, final File logFile) throws JAXBException {
+      try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            FileLock lock = channel.lock()) {
+         if (channel.size() == 0) {
+            return;
+         }
+         final Kopemedata data;
+         if (xmlFile.exists()) {
+            data = (Kopemedata) JAXBPool.getUnmarshaller().unmarshal(xmlFile);
+         } else {
+            data = new Kopemedata();
+            data.setTestcases(new Testcases());
+            data.getTestcases().setClazz(xmlFile.getName());
+         }
+         final Unmarshaller unmarshaller = JAXBPool.getUnmarshaller();
+         final int records = readRecords(channel, logFile, record -> mergeRecord(xmlFile, data, (Kopemedata) unmarshaller.unmarshal(record)));
+         LOG.debug("Compacting {} records into {}", records, xmlFile.getAbsolutePath());
+
+         XMLDataStorer.storeData(xmlFile, data);
+         channel.truncate(0);
+      } catch (IOException e) {
+         e.printStackTrace();
+      }
+   }
+
+   /**
+    * Merges all records of the log of the given XML file into the given data in memory; neither the XML file nor the log are changed, so this works on
+    * read-only result folders and while other processes append results. If no log exists, nothing is done.
+    *
+    * @param xmlFile The XML file
+    * @param data The data currently contained in the XML file
+    * @throws JAXBException Thrown if a record could not be read
+    */
+   static void mergeLog(final File xmlFile, final Kopemedata data) throws JAXBException {
+      final Unmarshaller unmarshaller = JAXBPool.getUnmarshaller();
+      visitLog(xmlFile, record -> mergeRecord(xmlFile, data, (Kopemedata) unmarshaller.unmarshal(record)));
+   }
+
+   /**
+    * Visits all records of the log of the given XML file without changing the log. If no log exists, nothing is done.
+    *
+    * @param xmlFile The XML file
+    * @param visitor Visitor for the records
+    * @throws JAXBException Thrown if a record could not be read
+    */
+   static void visitLog(final File xmlFile, final RecordVisitor visitor) throws JAXBException {
+      if (!hasAppendedResults(xmlFile)) {
+         return;
+      }
+      final File logFile = getLogFile(xmlFile);
+      synchronized (VM_LOCK) {
+         try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ);
+               FileLock lock = channel.lock(0, Long.MAX_VALUE, true)) {
+            final int records = readRecords(channel, logFile, visitor);
+            LOG.debug("Read {} records of {}", records, logFile.getAbsolutePath());
+         } catch (IOException e) {
+            e.printStackTrace();
+         }
+      }
+   }
+
+   private static int readRecords(final FileChannel channel, final File logFile, final RecordVisitor visitor) throws IOException, JAXBException {
+      final ByteBuffer log = ByteBuffer.allocate((int) channel.size());
+      while (log.hasRemaining() && channel.read(log, log.position()) != -1) {
+      }
+      log.flip();
+
+      int records = 0;
+      while (log.remaining() >= Integer.BYTES) {
+         final int length = log.getInt();
+         if (log.remaining() < length) {
+            LOG.warn("Incomplete record at the end of {} is skipped", logFile.getAbsolutePath());
+            break;
+         }
+         final byte[] recordBytes = new byte[length];
+         log.get(recordBytes);
+         visitor.visit(new ByteArrayInputStream(recordBytes));
+         records++;
+      }
+      return records;
+   }
+
+   private static void mergeRecord(final File xmlFile, final Kopemedata data, final Kopemedata record) {
+      if (!xmlFile.exists() && record.getTestcases().getClazz() != null) {
+         data.getTestcases().setClazz(record.getTestcases().getClazz());
+      }
+      for (final TestcaseType testcase : record.getTestcases().getTestcase()) {
+         for (final Datacollector collector : testcase.getDatacollector()) {
+            for (final Result result : collector.getResult()) {
+               XMLDataStorer.addResult(data, result, testcase.getName(), collector.getName(), null);
+            }
+            for (final Chunk chunk : collector.getChunk()) {
+               for (final Result result : chunk.getResult()) {
+                  XMLDataStorer.addResult(data, result, testcase.getName(), collector.getName(), chunk.getChunkStartTime());
+               }
+            }
+         }
+      }
+   }
+}
@@ -1,5 +1,7 @@
 package de.dagere.kopeme.datastorage;
 
+import java.util.Map;
+
 import de.dagere.kopeme.generated.Result;
 
 /**
@@ -12,4 +14,16 @@ public interface DataStorer {
 
 
    void storeValue(Result performanceDataMeasure, String testcase, String collectorName);
+
+   /**
+    * Stores the results of all collectors of one testcase. Implementations should override this to save all results at once.
+    * 
+    * @param testcase Name of the testcase
+    * @param results Mapping from collector name to result
+    */
+   default void storeValues(final String testcase, final Map<String, Result> results) {
+      for (final Map.Entry<String, Result> entry : results.entrySet()) {
+         storeValue(entry.getValue(), testcase, entry.getKey());
+      }
+   }
 }
@@ -1,44 +1,164 @@
 package de.dagere.kopeme.datastorage;
 
 import java.io.IOException;
-import java.util.Scanner;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.dagere.kopeme.generated.Result.Environment;
+
+/**
+ * Reads information about the environment of the measurement. The files of /proc and /sys are read once per JVM and cached, so saving results does not start
+ * any process and does not disturb following measurements.
+ *
+ * @author reichelt
+ *
+ */
 public class EnvironmentUtil {
-   public static String getCPU() {
-      String result = "";
-      if (!System.getProperty("os.name").startsWith("Windows")) {
-         try {
-            Process process = new ProcessBuilder("/bin/sh", "-c", "cat /proc/cpuinfo | grep \"model name\" | uniq").start();
-            result = getProcessResultString(process);
-         } catch (IOException e) {
-            e.printStackTrace();
+
+   private static final Logger LOG = LogManager.getLogger(EnvironmentUtil.class);
+
+   private static final boolean IS_WINDOWS = System.getProperty("os.name").startsWith("Windows");
+
+   private static String cpu, memory, governor, onlineCpus, hugepages, jvmFlags, gc;
+
+   public static synchronized String getCPU() {
+      if (cpu == null) {
+         final StringBuilder modelNames = new StringBuilder();
+         String lastLine = null;
+         for (final String line : readLines(Paths.get("/proc/cpuinfo"))) {
+            if (line.contains("model name") && !line.equals(lastLine)) {
+               modelNames.append(line).append('\n');
+               lastLine = line;
+            }
+         }
+         cpu = formatProcLines(modelNames.toString());
+      }
+      return cpu;
+   }
+
+   public static synchronized String getMemory() {
+      if (memory == null) {
+         final StringBuilder memTotal = new StringBuilder();
+         for (final String line : readLines(Paths.get("/proc/meminfo"))) {
+            if (line.contains("MemTotal")) {
+               memTotal.append(line).append('\n');
+            }
+         }
+         memory = formatProcLines(memTotal.toString());
+      }
+      return memory;
+   }
+
+   /**
+    * Returns the frequency scaling governor of the first CPU, e.g. performance or powersave.
+    */
+   public static synchronized String getGovernor() {
+      if (governor == null) {
+         governor = readFirstLine(Paths.get("/sys/devices/system/cpu/cpu0/cpufreq/scaling_governor"));
+      }
+      return governor;
+   }
+
+   /**
+    * Returns the online CPUs as listed by the kernel (e.g. 0-7), or the count of available processors if this is not available.
+    */
+   public static synchronized String getOnlineCpus() {
+      if (onlineCpus == null) {
+         onlineCpus = readFirstLine(Paths.get("/sys/devices/system/cpu/online"));
+         if (onlineCpus.isEmpty()) {
+            onlineCpus = Integer.toString(Runtime.getRuntime().availableProcessors());
          }
-      } else {
-         result = "";
       }
-      return result;
+      return onlineCpus;
    }
 
-   public static String getMemory() {
-      String result = "";
-      if (!System.getProperty("os.name").startsWith("Windows")) {
-         try {
-            Process process = new ProcessBuilder("/bin/sh", "-c", "cat /proc/meminfo | grep \"MemTotal\"").start();
-            result = getProcessResultString(process);
-         } catch (IOException e) {
-            e.printStackTrace();
+   /**
+    * Returns the transparent huge page setting and the count of reserved huge pages.
+    */
+   public static synchronized String getHugepages() {
+      if (hugepages == null) {
+         final StringBuilder result = new StringBuilder(readFirstLine(Paths.get("/sys/kernel/mm/transparent_hugepage/enabled")));
+         for (final String line : readLines(Paths.get("/proc/meminfo"))) {
+            if (line.startsWith("HugePages_Total")) {
+               result.append(result.length() > 0 ? " " : "").append(formatProcLines(line));
+            }
          }
-      } else {
-         result = "";
+         hugepages = result.toString();
       }
-      return result;
+      return hugepages;
    }
-   
-   private static String getProcessResultString(Process process) {
-      String result;
-      try (Scanner scanner = new Scanner(process.getInputStream())) {
-         result = scanner.useDelimiter("\\A").next().replace("\t", " ").replace("  ", "").replace("\n", "");
+
+   /**
+    * Returns the arguments of the JVM, e.g. heap size and JIT settings.
+    */
+   public static synchronized String getJvmFlags() {
+      if (jvmFlags == null) {
+         jvmFlags = String.join(" ", ManagementFactory.getRuntimeMXBean().getInputArguments());
+      }
+      return jvmFlags;
+   }
+
+   /**
+    * Returns the names of the garbage collectors of the JVM.
+    */
+   public static synchronized String getGarbageCollectors() {
+      if (gc == null) {
+         final StringBuilder names = new StringBuilder();
+         for (final GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            names.append(names.length() > 0 ? ", " : "").append(bean.getName());
+         }
+         gc = names.toString();
       }
-      return result;
+      return gc;
+   }
+
+   /**
+    * Creates the environment information which is saved with every result.
+    */
+   public static Environment createEnvironment() {
+      final Environment environment = new Environment();
+      environment.setGovernor(emptyToNull(getGovernor()));
+      environment.setOnlineCpus(emptyToNull(getOnlineCpus()));
+      environment.setHugepages(emptyToNull(getHugepages()));
+      environment.setJvmFlags(emptyToNull(getJvmFlags()));
+      environment.setGc(emptyToNull(getGarbageCollectors()));
+      return environment;
+   }
+
+   private static String emptyToNull(final String value) {
+      return value.isEmpty() ? null : value;
+   }
+
+   private static List<String> readLines(final Path file) {
+      if (IS_WINDOWS || !Files.isReadable(file)) {
+         return Collections.emptyList();
+      }
+      try {
+         return Files.readAllLines(file, StandardCharsets.UTF_8);
+      } catch (IOException e) {
+         LOG.debug("{} could not be read: {}", file, e.getMessage());
+         return Collections.emptyList();
+      }
+   }
+
+   private static String readFirstLine(final Path file) {
+      final List<String> lines = readLines(file);
+      return lines.isEmpty() ? "" : lines.get(0).trim();
+   }
+
+   /**
+    * Formats lines of /proc files the same way as older KoPeMe versions did, so values of old and new results are comparable.
+    */
+   private static String formatProcLines(final String lines) {
+      return lines.replace("\t", " ").replace("  ", "").replace("\n", "");
    }
 }
@@ -52,6 +52,13 @@ public class FolderProvider {
 		return pathBuilder.toString();
 	}
 
+	/**
+	 * Returns the folder of the current project, containing one folder per test class and the {@link ResultHistoryIndex}.
+	 */
+	public File getProjectFolder() {
+		return new File(kopemeDefaultFolder, config.getProjectName());
+	}
+
 	public Collection<File> getPerformanceResultFolders(final String filename) {
 		File perfromanceResultsContainingFolder = new File(getFolderFor(filename));
 		if (!perfromanceResultsContainingFolder.isDirectory()) {
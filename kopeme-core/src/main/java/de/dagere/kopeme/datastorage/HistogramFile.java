@@ -0,0 +1,53 @@
+package de.dagere.kopeme.datastorage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Reads and writes latency histograms in the compressed HdrHistogram encoding. The files are saved next to the result file and referenced by the histogram
+ * element of the result.
+ * 
+ * @author reichelt
+ *
+ */
+public final class HistogramFile {
+
+   public static final String SUFFIX = ".hgrm";
+
+   private HistogramFile() {
+
+   }
+
+   /**
+    * Writes the histogram to a new temporary file, which is moved next to the result file when the result is stored.
+    * 
+    * @param histogram Histogram to write
+    * @return The temporary file
+    * @throws IOException If the file could not be written
+    */
+   public static File writeTemp(final Histogram histogram) throws IOException {
+      final File file = Files.createTempFile("kopeme-histogram-", SUFFIX).toFile();
+      write(histogram, file);
+      return file;
+   }
+
+   public static void write(final Histogram histogram, final File file) throws IOException {
+      final ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+      final int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+      Files.write(file.toPath(), Arrays.copyOf(buffer.array(), length));
+   }
+
+   public static Histogram read(final File file) throws IOException {
+      try {
+         return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(Files.readAllBytes(file.toPath())), 0);
+      } catch (DataFormatException e) {
+         throw new IOException("Histogram file " + file.getAbsolutePath() + " could not be decoded", e);
+      }
+   }
+}
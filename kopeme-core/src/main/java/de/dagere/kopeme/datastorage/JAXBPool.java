@@ -0,0 +1,97 @@
+package de.dagere.kopeme.datastorage;
+
+import java.util.function.Consumer;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.PropertyException;
+import javax.xml.bind.Unmarshaller;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Keeps one marshaller and one unmarshaller of each configuration per thread, since creating them is expensive compared to reading or writing small result
+ * files, and they are not thread-safe.
+ * 
+ * @author reichelt
+ *
+ */
+final class JAXBPool {
+
+   private static final Logger LOG = LogManager.getLogger(JAXBPool.class);
+
+   private static final ThreadLocal<Unmarshaller> UNMARSHALLER = ThreadLocal.withInitial(() -> {
+      try {
+         return XMLDataLoader.jc.createUnmarshaller();
+      } catch (final JAXBException e) {
+         throw new RuntimeException(e);
+      }
+   });
+
+   private static final ThreadLocal<Marshaller> FORMATTED_MARSHALLER = createMarshaller(marshaller -> {
+      setProperty(marshaller, Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+   });
+
+   private static final ThreadLocal<Marshaller> SINGLE_INDENT_MARSHALLER = createMarshaller(marshaller -> {
+      try {
+         marshaller.setProperty("com.sun.xml.bind.indentString", " ");
+      } catch (final PropertyException e) {
+         LOG.error("Indent String for JAXB can not be set in current JAXB-implementation; consider implementing transformer usage");
+      }
+      setProperty(marshaller, Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+   });
+
+   private static final ThreadLocal<Marshaller> FRAGMENT_MARSHALLER = createMarshaller(marshaller -> {
+      setProperty(marshaller, Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+   });
+
+   private JAXBPool() {
+
+   }
+
+   private static ThreadLocal<Marshaller> createMarshaller(final Consumer<Marshaller> configuration) {
+      return ThreadLocal.withInitial(() -> {
+         try {
+            final Marshaller marshaller = XMLDataLoader.jc.createMarshaller();
+            configuration.accept(marshaller);
+            return marshaller;
+         } catch (final JAXBException e) {
+            throw new RuntimeException(e);
+         }
+      });
+   }
+
+   private static void setProperty(final Marshaller marshaller, final String name, final Object value) {
+      try {
+         marshaller.setProperty(name, value);
+      } catch (final PropertyException e) {
+         throw new RuntimeException(e);
+      }
+   }
+
+   static Unmarshaller getUnmarshaller() {
+      return UNMARSHALLER.get();
+   }
+
+   /**
+    * Returns a marshaller with formatted output and the default indentation.
+    */
+   static Marshaller getFormattedMarshaller() {
+      return FORMATTED_MARSHALLER.get();
+   }
+
+   /**
+    * Returns a marshaller with formatted output indented by single spaces.
+    */
+   static Marshaller getSingleIndentMarshaller() {
+      return SINGLE_INDENT_MARSHALLER.get();
+   }
+
+   /**
+    * Returns a marshaller for documents without XML declaration, e.g. records of the {@link AppendingDataStorer}.
+    */
+   static Marshaller getFragmentMarshaller() {
+      return FRAGMENT_MARSHALLER.get();
+   }
+}
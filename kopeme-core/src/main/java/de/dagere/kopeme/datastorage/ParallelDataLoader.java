@@ -0,0 +1,116 @@
+package de.dagere.kopeme.datastorage;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import javax.xml.bind.JAXBException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Loads all result files below a folder, e.g. a project or test class folder of {@link FolderProvider}, in parallel on a {@link ForkJoinPool} and merges them
+ * into one {@link ResultIndex}. Every folder is one task, so the timestamp folders of a test class are loaded concurrently. Files which can not be read are
+ * skipped. The files are read by the {@link StreamingXMLDataLoader} without the values of the full data, so the index only grows with the count of results.
+ *
+ * @author reichelt
+ *
+ */
+public class ParallelDataLoader {
+
+   private static final Logger LOG = LogManager.getLogger(ParallelDataLoader.class);
+
+   private final File folder;
+   private final int parallelism;
+
+   /**
+    * Initializes the loader with one thread per available processor.
+    *
+    * @param folder Folder containing the result files or folders of result files
+    */
+   public ParallelDataLoader(final File folder) {
+      this(folder, Runtime.getRuntime().availableProcessors());
+   }
+
+   /**
+    * Initializes the loader.
+    *
+    * @param folder Folder containing the result files or folders of result files
+    * @param parallelism Count of threads which load files
+    */
+   public ParallelDataLoader(final File folder, final int parallelism) {
+      if (parallelism < 1) {
+         throw new RuntimeException("Parallelism needs to be at least 1, but was " + parallelism);
+      }
+      this.folder = folder;
+      this.parallelism = parallelism;
+   }
+
+   /**
+    * Loads all result files below the folder.
+    *
+    * @return Index of all loaded results
+    */
+   public ResultIndex load() {
+      final ResultIndex index = new ResultIndex();
+      final ForkJoinPool pool = new ForkJoinPool(parallelism);
+      try {
+         pool.invoke(new FolderTask(folder, index));
+      } finally {
+         pool.shutdown();
+      }
+      LOG.debug("Loaded {} results from {}", index.size(), folder.getAbsolutePath());
+      return index;
+   }
+
+   private static class FolderTask extends RecursiveAction {
+      private static final long serialVersionUID = 1L;
+
+      private final File folder;
+      private final transient ResultIndex index;
+
+      FolderTask(final File folder, final ResultIndex index) {
+         this.folder = folder;
+         this.index = index;
+      }
+
+      @Override
+      protected void compute() {
+         final File[] files = folder.listFiles();
+         if (files == null) {
+            return;
+         }
+         final List<FolderTask> subtasks = new ArrayList<>();
+         for (final File file : files) {
+            if (file.isDirectory()) {
+               final FolderTask subtask = new FolderTask(file, index);
+               subtask.fork();
+               subtasks.add(subtask);
+            }
+         }
+         for (final File file : files) {
+            if (file.isFile() && file.getName().endsWith(".xml")) {
+               loadFile(file);
+            }
+         }
+         for (final FolderTask subtask : subtasks) {
+            subtask.join();
+         }
+      }
+
+      private void loadFile(final File file) {
+         try {
+            final StreamingXMLDataLoader loader = new StreamingXMLDataLoader(file).setSkipFulldata(true);
+            loader.visit((testcase, collector, chunkStartTime, result) -> {
+               final String test = ResultIndex.getTestName(loader.getClazz(), testcase);
+               index.add(test, collector, new ResultIndex.Entry(result, file));
+            });
+         } catch (final JAXBException e) {
+            LOG.warn("{} could not be loaded: {}", file.getAbsolutePath(), e.getMessage());
+         }
+      }
+   }
+}
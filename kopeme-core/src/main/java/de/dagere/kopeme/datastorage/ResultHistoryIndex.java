@@ -0,0 +1,381 @@
+package de.dagere.kopeme.datastorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.dagere.kopeme.generated.Result;
+
+/**
+ * Index over the result history of one project, saved as {@link #INDEX_FILE_NAME} in the project folder of {@link FolderProvider}. The index maps class,
+ * method and collector to the aggregated values of every result and the file containing its full data, so trend queries do not need to scan folders and
+ * unmarshal XML files.
+ *
+ * The file starts with a magic number and a version, followed by length-prefixed records which are appended when results are stored (see
+ * {@link #addResults(File, String, String, Map)}). Reading is incremental, too: an index instance only reads the records appended since its last query. If the
+ * index file does not exist yet, storing results does not create it, so no test run waits for the existing results to be read; the first query creates it
+ * from the existing result files of the project instead (see {@link ParallelDataLoader} and {@link #rebuild()}). Since a result may be stored while the index
+ * is created, a record equal to an already read one is skipped.
+ *
+ * @author reichelt
+ *
+ */
+public class ResultHistoryIndex {
+
+   private static final Logger LOG = LogManager.getLogger(ResultHistoryIndex.class);
+
+   public static final String INDEX_FILE_NAME = "kopeme-index.bin";
+
+   static final int MAGIC = 0x4B504D49;
+   static final int VERSION = 1;
+   private static final int HEADER_LENGTH = 2 * Integer.BYTES;
+
+   /**
+    * Aggregated values of one result.
+    */
+   public static class Entry {
+      private final long date;
+      private final double value, deviation, min, max;
+      private final long iterations;
+      private final File fulldataFile;
+
+      Entry(final long date, final double value, final double deviation, final double min, final double max, final long iterations, final File fulldataFile) {
+         this.date = date;
+         this.value = value;
+         this.deviation = deviation;
+         this.min = min;
+         this.max = max;
+         this.iterations = iterations;
+         this.fulldataFile = fulldataFile;
+      }
+
+      public long getDate() {
+         return date;
+      }
+
+      public double getValue() {
+         return value;
+      }
+
+      public double getDeviation() {
+         return deviation;
+      }
+
+      public double getMin() {
+         return min;
+      }
+
+      public double getMax() {
+         return max;
+      }
+
+      public long getIterations() {
+         return iterations;
+      }
+
+      /**
+       * Returns the file containing the full data of the result, or null if the full data have not been saved in a separate file.
+       */
+      public File getFulldataFile() {
+         return fulldataFile;
+      }
+
+      @Override
+      public boolean equals(final Object obj) {
+         if (!(obj instanceof Entry)) {
+            return false;
+         }
+         final Entry other = (Entry) obj;
+         return date == other.date && Double.compare(value, other.value) == 0 && Double.compare(deviation, other.deviation) == 0
+               && Double.compare(min, other.min) == 0 && Double.compare(max, other.max) == 0 && iterations == other.iterations
+               && Objects.equals(fulldataFile, other.fulldataFile);
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hash(date, value, deviation, min, max, iterations, fulldataFile);
+      }
+   }
+
+   private static final Comparator<Entry> BY_DATE = Comparator.comparingLong(Entry::getDate);
+
+   private final File projectFolder;
+   private final File indexFile;
+   private final Map<String, List<Entry>> entries = new HashMap<>();
+   private final Map<String, Set<Entry>> readEntries = new HashMap<>();
+   private long readPosition = 0;
+   private boolean inMemoryOnly = false;
+
+   /**
+    * Opens the index of the given project folder.
+    *
+    * @param projectFolder Folder of the project, containing one folder per test class
+    */
+   public ResultHistoryIndex(final File projectFolder) {
+      this.projectFolder = projectFolder;
+      this.indexFile = new File(projectFolder, INDEX_FILE_NAME);
+   }
+
+   /**
+    * Opens the index of the current project of {@link FolderProvider}.
+    */
+   public static ResultHistoryIndex getCurrentProjectIndex() {
+      return new ResultHistoryIndex(FolderProvider.getInstance().getProjectFolder());
+   }
+
+   private static String getKey(final String clazz, final String method, final String collector) {
+      return clazz + "#" + method + "#" + collector;
+   }
+
+   /**
+    * Returns all indexed results of the given test and collector, sorted by date.
+    *
+    * @param clazz Name of the test class
+    * @param method Name of the test method
+    * @param collector Name of the datacollector
+    * @return Aggregated values of all results
+    */
+   public synchronized List<Entry> getHistory(final String clazz, final String method, final String collector) {
+      readNewRecords();
+      final List<Entry> history = entries.get(getKey(clazz, method, collector));
+      return history != null ? Collections.unmodifiableList(history) : Collections.emptyList();
+   }
+
+   /**
+    * Creates the index file again from the result files of the project, e.g. if result files have been removed or the index file is damaged. This reads all
+    * result files of the project, so it should not be called while tests are measured.
+    */
+   public synchronized void rebuild() {
+      entries.clear();
+      readEntries.clear();
+      readPosition = 0;
+      inMemoryOnly = false;
+      create(true);
+      readNewRecords();
+   }
+
+   private void readNewRecords() {
+      if (inMemoryOnly) {
+         return;
+      }
+      if ((!indexFile.exists() || indexFile.length() == 0) && projectFolder.isDirectory()) {
+         create(false);
+         if (inMemoryOnly) {
+            return;
+         }
+      }
+      if (!indexFile.exists() || indexFile.length() == readPosition) {
+         return;
+      }
+      try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+         final ByteBuffer buffer = ByteBuffer.allocate((int) (channel.size() - readPosition));
+         while (buffer.hasRemaining() && channel.read(buffer, readPosition + buffer.position()) != -1) {
+         }
+         buffer.flip();
+         if (readPosition == 0) {
+            if (buffer.remaining() < HEADER_LENGTH || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+               LOG.warn("{} is not a KoPeMe index, ignoring it", indexFile.getAbsolutePath());
+               return;
+            }
+            readPosition = HEADER_LENGTH;
+         }
+         readPosition += readRecords(buffer);
+      } catch (IOException e) {
+         e.printStackTrace();
+      }
+   }
+
+   /**
+    * Reads all complete records of the buffer into the entries.
+    *
+    * @return Count of bytes read
+    */
+   private int readRecords(final ByteBuffer buffer) {
+      final List<String> changedKeys = new ArrayList<>();
+      int read = 0;
+      while (buffer.remaining() >= Integer.BYTES) {
+         final int length = buffer.getInt(buffer.position());
+         if (buffer.remaining() < Integer.BYTES + length) {
+            break;
+         }
+         buffer.getInt();
+         final byte[] recordBytes = new byte[length];
+         buffer.get(recordBytes);
+         try (DataInputStream record = new DataInputStream(new ByteArrayInputStream(recordBytes))) {
+            final String key = getKey(record.readUTF(), record.readUTF(), record.readUTF());
+            final long date = record.readLong();
+            final double value = record.readDouble(), deviation = record.readDouble(), min = record.readDouble(), max = record.readDouble();
+            final long iterations = record.readLong();
+            final String fulldata = record.readUTF();
+            final File fulldataFile = fulldata.isEmpty() ? null : new File(projectFolder, fulldata);
+            final Entry entry = new Entry(date, value, deviation, min, max, iterations, fulldataFile);
+            if (readEntries.computeIfAbsent(key, k -> new HashSet<>()).add(entry)) {
+               entries.computeIfAbsent(key, k -> new ArrayList<>()).add(entry);
+               changedKeys.add(key);
+            }
+         } catch (IOException e) {
+            LOG.warn("Skipping broken record in {}: {}", indexFile.getAbsolutePath(), e.getMessage());
+         }
+         read += Integer.BYTES + length;
+      }
+      for (final String key : changedKeys) {
+         entries.get(key).sort(BY_DATE);
+      }
+      return read;
+   }
+
+   /**
+    * Appends the given results of one test to the index of the project containing the result file. If the result file is not placed in the project folder of
+    * {@link FolderProvider} or the index has not been created yet, nothing is done; in the latter case, the results are indexed from the result file when the
+    * index is created.
+    *
+    * @param resultFile The XML file the results have been stored in
+    * @param clazz Name of the test class
+    * @param method Name of the test method
+    * @param results Results by collector name
+    */
+   public static void addResults(final File resultFile, final String clazz, final String method, final Map<String, Result> results) {
+      final Path projectPath = FolderProvider.getInstance().getProjectFolder().toPath().toAbsolutePath().normalize();
+      final Path resultPath = resultFile.toPath().toAbsolutePath().normalize();
+      if (!resultPath.startsWith(projectPath)) {
+         return;
+      }
+      try {
+         append(projectPath.toFile(), projectPath.relativize(resultPath), clazz, method, results);
+      } catch (IOException e) {
+         e.printStackTrace();
+      }
+   }
+
+   static void append(final File projectFolder, final Path resultFile, final String clazz, final String method, final Map<String, Result> results)
+         throws IOException {
+      final RecordWriter writer = new RecordWriter();
+      final Path resultFolder = resultFile.getParent();
+      for (final Map.Entry<String, Result> entry : results.entrySet()) {
+         final Result result = entry.getValue();
+         final boolean hasFulldataFile = result.getFulldata() != null && result.getFulldata().getFileName() != null;
+         final String fulldataName = hasFulldataFile ? new File(result.getFulldata().getFileName()).getName() : null;
+         writer.write(clazz, method, entry.getKey(), result, hasFulldataFile ? (resultFolder != null ? resultFolder.resolve(fulldataName).toString() : fulldataName) : "");
+      }
+      final File indexFile = new File(projectFolder, INDEX_FILE_NAME);
+      if (indexFile.length() == 0) {
+         LOG.debug("{} has not been created yet, not indexing results of {}#{}", indexFile.getAbsolutePath(), clazz, method);
+         return;
+      }
+      final ByteBuffer buffer = ByteBuffer.wrap(writer.toByteArray());
+      try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            FileLock lock = channel.lock()) {
+         if (channel.size() == 0) {
+            return;
+         }
+         while (buffer.hasRemaining()) {
+            channel.write(buffer);
+         }
+      }
+      LOG.debug("Indexed {} results of {}#{}", results.size(), clazz, method);
+   }
+
+   /**
+    * Creates the index file from all existing result files of the project, reading them without the values of their full data. Unless the index file should
+    * be replaced, nothing is done if another instance created it in the meantime. If the index file can not be written, the existing results are only indexed
+    * in memory.
+    */
+   private void create(final boolean replace) {
+      try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock lock = channel.lock()) {
+         if (!replace && channel.size() > 0) {
+            return;
+         }
+         final ResultIndex existing = new ParallelDataLoader(projectFolder).load();
+         final byte[] existingRecords = createRecords(projectFolder, existing);
+         final ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + existingRecords.length);
+         buffer.putInt(MAGIC).putInt(VERSION).put(existingRecords);
+         buffer.flip();
+         channel.truncate(0);
+         while (buffer.hasRemaining()) {
+            channel.write(buffer, buffer.position());
+         }
+         LOG.info("Created {} from {} existing results", indexFile.getAbsolutePath(), existing.size());
+      } catch (IOException e) {
+         LOG.warn("{} could not be written, indexing the existing results in memory: {}", indexFile.getAbsolutePath(), e.getMessage());
+         readRecords(ByteBuffer.wrap(createRecords(projectFolder, new ParallelDataLoader(projectFolder).load())));
+         inMemoryOnly = true;
+      }
+   }
+
+   /**
+    * Creates the records of all results of the given index.
+    */
+   private static byte[] createRecords(final File projectFolder, final ResultIndex index) {
+      final Path projectPath = projectFolder.toPath().toAbsolutePath().normalize();
+      final RecordWriter writer = new RecordWriter();
+      try {
+         for (final String test : index.getTests()) {
+            final int separator = test.indexOf('#');
+            final String clazz = test.substring(0, separator), method = test.substring(separator + 1);
+            for (final String collector : index.getCollectors(test)) {
+               for (final ResultIndex.Entry entry : index.getEntries(test, collector)) {
+                  final File fulldataFile = entry.getFulldataFile();
+                  final String fulldata = fulldataFile != null ? projectPath.relativize(fulldataFile.toPath().toAbsolutePath().normalize()).toString() : "";
+                  writer.write(clazz, method, collector, entry.getResult(), fulldata);
+               }
+            }
+         }
+         return writer.toByteArray();
+      } catch (IOException e) {
+         throw new RuntimeException(e);
+      }
+   }
+
+   /**
+    * Writes length-prefixed records; strings are written in the modified UTF-8 of {@link DataOutputStream#writeUTF(String)}.
+    */
+   private static class RecordWriter {
+      private final ByteArrayOutputStream recordStream = new ByteArrayOutputStream();
+      private final DataOutputStream records = new DataOutputStream(recordStream);
+      private final ByteArrayOutputStream singleRecord = new ByteArrayOutputStream();
+      private final DataOutputStream record = new DataOutputStream(singleRecord);
+
+      void write(final String clazz, final String method, final String collector, final Result result, final String fulldata) throws IOException {
+         singleRecord.reset();
+         record.writeUTF(clazz);
+         record.writeUTF(method);
+         record.writeUTF(collector);
+         record.writeLong(result.getDate() != null ? result.getDate() : 0L);
+         record.writeDouble(result.getValue());
+         record.writeDouble(result.getDeviation());
+         record.writeDouble(result.getMin() != null ? result.getMin() : Double.NaN);
+         record.writeDouble(result.getMax() != null ? result.getMax() : Double.NaN);
+         record.writeLong(result.getIterations());
+         record.writeUTF(fulldata);
+         record.flush();
+         records.writeInt(singleRecord.size());
+         singleRecord.writeTo(records);
+      }
+
+      byte[] toByteArray() throws IOException {
+         records.flush();
+         return recordStream.toByteArray();
+      }
+   }
+}
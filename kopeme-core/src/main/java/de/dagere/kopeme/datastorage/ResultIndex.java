@@ -0,0 +1,115 @@
+package de.dagere.kopeme.datastorage;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import de.dagere.kopeme.generated.Result;
+
+/**
+ * In-memory index of results of many result files, grouped by test (test class and method) and collector. Results may be added concurrently; after adding,
+ * the results of each test and collector are returned sorted by date.
+ *
+ * @author reichelt
+ *
+ */
+public class ResultIndex {
+
+   /**
+    * A result together with the file it has been loaded from. The values of the full data are not kept; only the name of the full data file is.
+    */
+   public static class Entry {
+      private final Result result;
+      private final File resultFile;
+
+      public Entry(final Result result, final File resultFile) {
+         this.result = result;
+         this.resultFile = resultFile;
+      }
+
+      public Result getResult() {
+         return result;
+      }
+
+      public File getResultFile() {
+         return resultFile;
+      }
+
+      /**
+       * Returns the file containing the full data of the result, which is placed next to the result file, or null if the full data are not saved in a file.
+       */
+      public File getFulldataFile() {
+         if (result.getFulldata() == null || result.getFulldata().getFileName() == null) {
+            return null;
+         }
+         return new File(resultFile.getParentFile(), new File(result.getFulldata().getFileName()).getName());
+      }
+   }
+
+   private static final Comparator<Entry> BY_DATE = Comparator.comparingLong(entry -> entry.getResult().getDate() != null ? entry.getResult().getDate() : 0L);
+
+   private final ConcurrentMap<String, ConcurrentMap<String, List<Entry>>> entries = new ConcurrentHashMap<>();
+
+   /**
+    * Returns the name of a test in the index.
+    *
+    * @param clazz Name of the test class
+    * @param testcase Name of the test method
+    * @return Name of the test, i.e. clazz#testcase
+    */
+   public static String getTestName(final String clazz, final String testcase) {
+      return clazz + "#" + testcase;
+   }
+
+   public void add(final String test, final String collector, final Entry entry) {
+      final List<Entry> collectorEntries = entries.computeIfAbsent(test, name -> new ConcurrentHashMap<>())
+            .computeIfAbsent(collector, name -> Collections.synchronizedList(new ArrayList<>()));
+      collectorEntries.add(entry);
+   }
+
+   public Set<String> getTests() {
+      return new TreeMap<>(entries).keySet();
+   }
+
+   public Set<String> getCollectors(final String test) {
+      final Map<String, List<Entry>> collectors = entries.get(test);
+      return collectors != null ? new TreeMap<>(collectors).keySet() : Collections.emptySet();
+   }
+
+   /**
+    * Returns the results of the given test and collector, sorted by date.
+    */
+   public List<Entry> getEntries(final String test, final String collector) {
+      final Map<String, List<Entry>> collectors = entries.get(test);
+      final List<Entry> collectorEntries = collectors != null ? collectors.get(collector) : null;
+      if (collectorEntries == null) {
+         return Collections.emptyList();
+      }
+      final List<Entry> sorted;
+      synchronized (collectorEntries) {
+         sorted = new ArrayList<>(collectorEntries);
+      }
+      sorted.sort(BY_DATE);
+      return sorted;
+   }
+
+   /**
+    * Returns the count of all results in the index.
+    */
+   public int size() {
+      int size = 0;
+      for (final Map<String, List<Entry>> collectors : entries.values()) {
+         for (final List<Entry> collectorEntries : collectors.values()) {
+            size += collectorEntries.size();
+         }
+      }
+      return size;
+   }
+}
@@ -6,6 +6,7 @@ public class RunConfiguration {
    private final int warmupExecutions, repetitions;
    private final boolean showStart, redirectToTemp, redirectToNull;
    private boolean saveValues;
+   private boolean saveHistograms = false;
    
    public RunConfiguration(int warmupExecutions, int repetitions, boolean showStart, boolean redirectToTemp, boolean redirectToNull, boolean saveValues) {
       this.warmupExecutions = warmupExecutions;
@@ -23,6 +24,7 @@ public class RunConfiguration {
       redirectToTemp = annotation.redirectToTemp();
       redirectToNull = annotation.redirectToNull();
       saveValues = annotation.logFullData();
+      saveHistograms = annotation.logHistogram();
    }
 
    public int getWarmupExecutions() {
@@ -52,4 +54,12 @@ public class RunConfiguration {
    public void setSaveValues(boolean saveValues) {
       this.saveValues = saveValues;
    }
+
+   public boolean isSaveHistograms() {
+      return saveHistograms;
+   }
+
+   public void setSaveHistograms(boolean saveHistograms) {
+      this.saveHistograms = saveHistograms;
+   }
 }
@@ -0,0 +1,247 @@
+package de.dagere.kopeme.datastorage;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.StreamFilter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.dagere.kopeme.generated.Result;
+
+/**
+ * Loads KoPeMe-XML files with StAX instead of unmarshalling the whole file, so the memory usage does not depend on the size of the file. Only results matching
+ * the filter (collector name and date range) are unmarshalled, one at a time; optionally, their full data is skipped while reading. Results appended by the
+ * {@link AppendingDataStorer} which have not been compacted yet are visited after the results of the file, without changing the file or the log.
+ *
+ * @author reichelt
+ *
+ */
+public class StreamingXMLDataLoader {
+
+   private static final Logger LOG = LogManager.getLogger(StreamingXMLDataLoader.class);
+
+   private static final XMLInputFactory FACTORY = XMLInputFactory.newInstance();
+
+   /**
+    * Visitor for the results of a file.
+    */
+   public interface ResultVisitor {
+      /**
+       * Visits a result matching the filter.
+       *
+       * @param testcase Name of the testcase
+       * @param collectorName Name of the datacollector
+       * @param chunkStartTime Start time of the chunk or null, if the result is not contained in a chunk
+       * @param result The result
+       */
+      void visit(String testcase, String collectorName, Long chunkStartTime, Result result);
+   }
+
+   private final File file;
+   private String collectorName = null;
+   private long minDate = Long.MIN_VALUE, maxDate = Long.MAX_VALUE;
+   private boolean skipFulldata = false;
+   private String clazz = null;
+
+   public StreamingXMLDataLoader(final File file) {
+      this.file = file;
+   }
+
+   /**
+    * Only visits results of the given collector; null means all collectors.
+    */
+   public StreamingXMLDataLoader setCollectorName(final String collectorName) {
+      this.collectorName = collectorName;
+      return this;
+   }
+
+   /**
+    * Only visits results whose date is within the given range (inclusive).
+    */
+   public StreamingXMLDataLoader setDateRange(final long minDate, final long maxDate) {
+      this.minDate = minDate;
+      this.maxDate = maxDate;
+      return this;
+   }
+
+   /**
+    * Skips the values of the full data of the results while reading. Visited results only keep the name of their full data file, if the values are saved in a
+    * file, and have no full data otherwise.
+    */
+   public StreamingXMLDataLoader setSkipFulldata(final boolean skipFulldata) {
+      this.skipFulldata = skipFulldata;
+      return this;
+   }
+
+   /**
+    * Returns the name of the test class of the visited results, which is known as soon as the first result is visited.
+    *
+    * @return Name of the test class
+    */
+   public String getClazz() {
+      return clazz;
+   }
+
+   /**
+    * Returns a mapping from all testcases to the values of their results, like {@link XMLDataLoader#getData(String)}, but only for the results matching the
+    * filter. Full data is skipped.
+    *
+    * @return Mapping from all testcases to their results
+    * @throws JAXBException Thrown if the file contains errors
+    */
+   public Map<String, Map<Date, Long>> getData() throws JAXBException {
+      final boolean oldSkipFulldata = skipFulldata;
+      skipFulldata = true;
+      final Map<String, Map<Date, Long>> map = new HashMap<>();
+      try {
+         visit((testcase, collector, chunkStartTime, result) -> {
+            map.computeIfAbsent(testcase, name -> new HashMap<>()).put(new Date(result.getDate()), (long) result.getValue());
+         });
+      } finally {
+         skipFulldata = oldSkipFulldata;
+      }
+      return map;
+   }
+
+   /**
+    * Visits all results matching the filter in the order of the file, followed by the results of its log.
+    *
+    * @param visitor Visitor for the results
+    * @throws JAXBException Thrown if the file contains errors
+    */
+   public void visit(final ResultVisitor visitor) throws JAXBException {
+      if (file.exists() || !AppendingDataStorer.hasAppendedResults(file)) {
+         try (InputStream input = new FileInputStream(file)) {
+            read(input, visitor);
+         } catch (IOException e) {
+            throw new JAXBException("File " + file.getAbsolutePath() + " could not be read", e);
+         }
+      }
+      AppendingDataStorer.visitLog(file, record -> read(record, visitor));
+      LOG.debug("Finished reading {}", file.getAbsolutePath());
+   }
+
+   private void read(final InputStream input, final ResultVisitor visitor) throws JAXBException {
+      try {
+         XMLStreamReader reader = FACTORY.createXMLStreamReader(input);
+         if (skipFulldata) {
+            reader = FACTORY.createFilteredReader(reader, new FulldataFilter());
+         }
+         try {
+            readElements(reader, visitor);
+         } finally {
+            reader.close();
+         }
+      } catch (XMLStreamException e) {
+         throw new JAXBException("File " + file.getAbsolutePath() + " could not be read", e);
+      }
+   }
+
+   private void readElements(final XMLStreamReader reader, final ResultVisitor visitor) throws XMLStreamException, JAXBException {
+      String testcase = null, collector = null;
+      Long chunkStartTime = null;
+      while (reader.hasNext()) {
+         if (reader.isStartElement()) {
+            switch (reader.getLocalName()) {
+            case "testcases":
+               clazz = reader.getAttributeValue(null, "class");
+               break;
+            case "testcase":
+               testcase = reader.getAttributeValue(null, "name");
+               break;
+            case "datacollector":
+               collector = reader.getAttributeValue(null, "name");
+               break;
+            case "chunk":
+               final String start = reader.getAttributeValue(null, "chunkStartTime");
+               chunkStartTime = start != null ? Long.parseLong(start) : null;
+               break;
+            case "result":
+               if (matches(collector, reader.getAttributeValue(null, "date"))) {
+                  final Result result = JAXBPool.getUnmarshaller().unmarshal(reader, Result.class).getValue();
+                  XMLDataLoader.updateResultFields(result);
+                  if (skipFulldata && result.getFulldata() != null && result.getFulldata().getFileName() == null) {
+                     result.setFulldata(null);
+                  }
+                  visitor.visit(testcase, collector, chunkStartTime, result);
+               } else {
+                  skipElement(reader);
+               }
+               continue;
+            default:
+               break;
+            }
+         } else if (reader.isEndElement() && "chunk".equals(reader.getLocalName())) {
+            chunkStartTime = null;
+         }
+         reader.next();
+      }
+   }
+
+   private boolean matches(final String collector, final String date) {
+      if (collectorName != null && !collectorName.equals(collector)) {
+         return false;
+      }
+      if (date != null) {
+         final long dateValue = Long.parseLong(date);
+         return dateValue >= minDate && dateValue <= maxDate;
+      }
+      return minDate == Long.MIN_VALUE && maxDate == Long.MAX_VALUE;
+   }
+
+   /**
+    * Skips the current element including all children; afterwards, the reader is positioned after the end of the element.
+    */
+   private static void skipElement(final XMLStreamReader reader) throws XMLStreamException {
+      int depth = 0;
+      do {
+         if (reader.isStartElement()) {
+            depth++;
+         } else if (reader.isEndElement()) {
+            depth--;
+         }
+         reader.next();
+      } while (depth > 0);
+   }
+
+   /**
+    * Hides the children of the fulldata elements except the name of the full data file.
+    */
+   private static class FulldataFilter implements StreamFilter {
+      private boolean inFulldata = false;
+      private int skipDepth = 0;
+
+      @Override
+      public boolean accept(final XMLStreamReader reader) {
+         if (reader.isStartElement()) {
+            if (skipDepth > 0 || (inFulldata && !"fileName".equals(reader.getLocalName()))) {
+               skipDepth++;
+               return false;
+            }
+            if ("fulldata".equals(reader.getLocalName())) {
+               inFulldata = true;
+            }
+         } else if (reader.isEndElement()) {
+            if (skipDepth > 0) {
+               skipDepth--;
+               return false;
+            }
+            if ("fulldata".equals(reader.getLocalName())) {
+               inFulldata = false;
+            }
+         }
+         return skipDepth == 0;
+      }
+   }
+}
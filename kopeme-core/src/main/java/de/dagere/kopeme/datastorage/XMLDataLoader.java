@@ -10,13 +10,14 @@ import java.util.Set;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import de.dagere.kopeme.datacollection.CompilationCollector;
 import de.dagere.kopeme.datacollection.DataCollector;
-import de.dagere.kopeme.datacollection.tempfile.WrittenResultReader;
+import de.dagere.kopeme.datacollection.GCActivityCollector;
+import de.dagere.kopeme.datacollection.tempfile.MappedResultReader;
 import de.dagere.kopeme.generated.Kopemedata;
 import de.dagere.kopeme.generated.Kopemedata.Testcases;
 import de.dagere.kopeme.generated.Result;
@@ -64,9 +65,8 @@ public final class XMLDataLoader implements DataLoader {
     * @throws JAXBException Thrown if the File countains errors
     */
    private void loadData() throws JAXBException {
-      if (file.exists()) {
-         final Unmarshaller unmarshaller = jc.createUnmarshaller();
-         data = (Kopemedata) unmarshaller.unmarshal(file);
+      if (file.exists() || AppendingDataStorer.hasAppendedResults(file)) {
+         data = readData(file);
          LOG.trace("Daten geladen, Daten: {}", data);
       } else {
          LOG.info("Datei {} existiert nicht", file.getAbsolutePath());
@@ -79,6 +79,22 @@ public final class XMLDataLoader implements DataLoader {
       updateFields(data);
    }
 
+   /**
+    * Reads the data of the given file; if results have been appended by {@link AppendingDataStorer}, they are merged into the data without changing the file.
+    */
+   private static Kopemedata readData(final File dataFile) throws JAXBException {
+      final Kopemedata data;
+      if (dataFile.exists()) {
+         data = (Kopemedata) JAXBPool.getUnmarshaller().unmarshal(dataFile);
+      } else {
+         data = new Kopemedata();
+         data.setTestcases(new Testcases());
+         data.getTestcases().setClazz(dataFile.getName());
+      }
+      AppendingDataStorer.mergeLog(dataFile, data);
+      return data;
+   }
+
    /**
     * In KoPeMe 0.12, the fields should be named suiting to the Peass-fields, i.e. executionTimes -> iterations and warmupExecutions -> warmup
     * For the beginning, fields will be changed when reading and written differently by KoPeMe; in the future, executionTimes and warmupExecutions will be removed fully
@@ -98,7 +114,7 @@ public final class XMLDataLoader implements DataLoader {
       }
    }
 
-   private static void updateResultFields(Result result) {
+   static void updateResultFields(Result result) {
       if (result.getWarmup() == 0 && result.getWarmupExecutions() != 0) {
          result.setWarmup(result.getWarmupExecutions());
          result.setWarmupExecutions(0);
@@ -179,15 +195,13 @@ public final class XMLDataLoader implements DataLoader {
    }
 
    public static Kopemedata loadData(final File dataFile) throws JAXBException {
-      final Unmarshaller unmarshaller = jc.createUnmarshaller();
-      final Kopemedata data = (Kopemedata) unmarshaller.unmarshal(dataFile);
+      final Kopemedata data = readData(dataFile);
       updateFields(data);
       return data;
    }
    
    public static Kopemedata loadWarmedupData(final File dataFile) throws JAXBException {
-      final Unmarshaller unmarshaller = jc.createUnmarshaller();
-      final Kopemedata data = (Kopemedata) unmarshaller.unmarshal(dataFile);
+      final Kopemedata data = readData(dataFile);
       for (TestcaseType testcase : data.getTestcases().getTestcase()) {
          for (Result result : testcase.getDatacollector().get(0).getResult()) {
             if (result.getFulldata().getFileName() != null) {
@@ -200,8 +214,7 @@ public final class XMLDataLoader implements DataLoader {
    }
 
    public static Kopemedata loadData(final File dataFile, int warmup) throws JAXBException {
-      final Unmarshaller unmarshaller = jc.createUnmarshaller();
-      final Kopemedata data = (Kopemedata) unmarshaller.unmarshal(dataFile);
+      final Kopemedata data = readData(dataFile);
       for (TestcaseType testcase : data.getTestcases().getTestcase()) {
          for (Result result : testcase.getDatacollector().get(0).getResult()) {
             if (result.getFulldata().getFileName() != null) {
@@ -247,10 +260,12 @@ public final class XMLDataLoader implements DataLoader {
    }
 
    private static Fulldata executeReading(String currentDatacollector, File dataFile, int warmup) {
-      final WrittenResultReader reader = new WrittenResultReader(dataFile);
+      final MappedResultReader reader = new MappedResultReader(dataFile);
       final Set<String> dataCollectors = new HashSet<>();
       dataCollectors.add(currentDatacollector);
-      reader.read(null, dataCollectors);
+      dataCollectors.add(CompilationCollector.class.getName());
+      dataCollectors.add(GCActivityCollector.class.getName());
+      reader.read(dataCollectors, dataCollectors);
       
       Fulldata replacedFulldata = reader.createFulldata(warmup, currentDatacollector);
       return replacedFulldata;
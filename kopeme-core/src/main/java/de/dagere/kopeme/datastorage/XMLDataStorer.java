@@ -3,10 +3,11 @@ package de.dagere.kopeme.datastorage;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
-import javax.xml.bind.PropertyException;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -27,8 +28,62 @@ import de.dagere.kopeme.generated.TestcaseType.Datacollector.Chunk;
 public final class XMLDataStorer implements DataStorer {
 
    private static final Logger LOG = LogManager.getLogger(XMLDataStorer.class);
+   private static final int CACHE_SIZE = 16;
+
+   /**
+    * Storers of the recently used result files of the current test class, so saving several results into the same file does not parse the file again each
+    * time. Since every storer keeps its whole file in memory, the storers are removed when results of another test class are saved or when
+    * {@link #clearCache()} is called.
+    */
+   private static final Map<File, XMLDataStorer> CACHE = new LinkedHashMap<File, XMLDataStorer>(CACHE_SIZE, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<File, XMLDataStorer> eldest) {
+         return size() > CACHE_SIZE;
+      }
+   };
+
+   private static String cachedClassname;
+
    private final File file;
    private Kopemedata data;
+   private long savedLastModified, savedLength;
+
+   /**
+    * Returns a storer for the given result file, reusing the storer of an earlier call if the file has not been changed since.
+    * 
+    * @param foldername Folder where the result should be saved
+    * @param classname Name of the test class which was executed
+    * @param methodname Name of the method which was executed
+    * @return Storer for the result file
+    * @throws JAXBException Thrown if an XML Reading error occurs
+    */
+   public static XMLDataStorer getInstance(final File foldername, final String classname, final String methodname) throws JAXBException {
+      final File file = new File(foldername, methodname + ".xml").getAbsoluteFile();
+      synchronized (CACHE) {
+         if (!classname.equals(cachedClassname)) {
+            CACHE.clear();
+            cachedClassname = classname;
+         }
+         XMLDataStorer storer = CACHE.get(file);
+         if (storer == null || !storer.isUpToDate()) {
+            storer = new XMLDataStorer(foldername, classname, methodname);
+            CACHE.put(file, storer);
+         }
+         return storer;
+      }
+   }
+
+   /**
+    * Removes all cached storers, e.g. when a test class is finished, so the data of its result files can be freed.
+    */
+   public static void clearCache() {
+      synchronized (CACHE) {
+         CACHE.clear();
+         cachedClassname = null;
+      }
+   }
 
    /**
     * Initializes an XMLDataStorer.
@@ -41,9 +96,11 @@ public final class XMLDataStorer implements DataStorer {
    public XMLDataStorer(final File foldername, final String classname, final String methodname) throws JAXBException {
       final String filename = methodname + ".xml";
       file = new File(foldername, filename);
-      if (file.exists()) {
+      if (file.exists() || AppendingDataStorer.hasAppendedResults(file)) {
+         AppendingDataStorer.compact(file);
          final XMLDataLoader loader = new XMLDataLoader(file);
          data = loader.getFullData();
+         rememberFileState();
       } else {
          createXMLData(classname);
       }
@@ -64,40 +121,96 @@ public final class XMLDataStorer implements DataStorer {
 
    @Override
    public void storeValue(final Result result, String testcase, String collectorName) {
+      storeValues(testcase, Collections.singletonMap(collectorName, result));
+   }
+
+   /**
+    * Stores the results of all collectors with one probe of the environment and one write of the file, and adds them to the {@link ResultHistoryIndex}.
+    */
+   @Override
+   public synchronized void storeValues(final String testcase, final Map<String, Result> results) {
+      final String cpu = EnvironmentUtil.getCPU();
+      final String memory = EnvironmentUtil.getMemory();
+      final Long chunkStartTime = getChunkStartTime();
+      for (final Map.Entry<String, Result> entry : results.entrySet()) {
+         final Result result = entry.getValue();
+         prepareResult(file, result, cpu, memory);
+         addResult(data, result, testcase, entry.getKey(), chunkStartTime);
+      }
+      storeData();
+      ResultHistoryIndex.addResults(file, data.getTestcases().getClazz(), testcase, results);
+   }
+
+   /**
+    * Moves the files of the result next to the result file and sets the environment information.
+    */
+   static void prepareResult(final File resultFile, final Result result, final String cpu, final String memory) {
+      if (result.getFulldata() != null && result.getFulldata().getFileName() != null) {
+         result.getFulldata().setFileName(moveNextToResult(resultFile, result.getFulldata().getFileName()));
+      }
+      if (result.getHistogram() != null) {
+         result.setHistogram(moveNextToResult(resultFile, result.getHistogram()));
+      }
+      result.setCpu(cpu);
+      result.setMemory(memory);
+      result.setEnvironment(EnvironmentUtil.createEnvironment());
+   }
+
+   /**
+    * Returns the chunk start time given by the environment variable KOPEME_CHUNKSTARTTIME.
+    * 
+    * @return Chunk start time or null, if results should not be saved in chunks
+    */
+   static Long getChunkStartTime() {
+      final String chunkStartTime = System.getenv("KOPEME_CHUNKSTARTTIME");
+      return chunkStartTime != null ? Long.parseLong(chunkStartTime) : null;
+   }
+
+   /**
+    * Adds a result to the data, creating the testcase, datacollector and chunk if necessary.
+    * 
+    * @param data Data where the result should be added
+    * @param result Result to add
+    * @param testcase Name of the testcase
+    * @param collectorName Name of the datacollector
+    * @param chunkStartTime Start time of the chunk, or null if the result does not belong to a chunk
+    */
+   static void addResult(final Kopemedata data, final Result result, final String testcase, final String collectorName, final Long chunkStartTime) {
       if (data.getTestcases() == null) {
          data.setTestcases(new Testcases());
       }
-      final TestcaseType test = getOrCreateTestcase(result, testcase);
+      final TestcaseType test = getOrCreateTestcase(data, testcase);
 
       final Datacollector dc = getOrCreateDatacollector(collectorName, test);
 
-      if (System.getenv("KOPEME_CHUNKSTARTTIME") != null) {
-         final Chunk current = findChunk(dc);
+      if (chunkStartTime != null) {
+         final Chunk current = findChunk(dc, chunkStartTime);
          current.getResult().add(result);
       } else {
          dc.getResult().add(result);
       }
-      if (result.getFulldata() != null && result.getFulldata().getFileName() != null) {
-         saveFulldata(result);
-      }
-      result.setCpu(EnvironmentUtil.getCPU());
-      result.setMemory(EnvironmentUtil.getMemory());
-      storeData();
    }
 
-   private void saveFulldata(final Result result) {
-      File fulldataFile = new File(result.getFulldata().getFileName());
-      final File targetFile = new File(file.getParentFile(), fulldataFile.getName());
+   /**
+    * Moves a temporary file, e.g. full data or a histogram, into the folder of the result file.
+    * 
+    * @param resultFile The result file
+    * @param fileName Absolute path of the temporary file
+    * @return Name of the file relative to the result file, or the given name if moving failed
+    */
+   static String moveNextToResult(final File resultFile, final String fileName) {
+      final File tempFile = new File(fileName);
+      final File targetFile = new File(resultFile.getParentFile(), tempFile.getName());
       try {
-         Files.move(fulldataFile.toPath(), targetFile.toPath());
-         result.getFulldata().setFileName(targetFile.getName());
+         Files.move(tempFile.toPath(), targetFile.toPath());
+         return targetFile.getName();
       } catch (IOException e) {
          e.printStackTrace();
+         return fileName;
       }
    }
 
-   private Chunk findChunk(final Datacollector dc) {
-      final long start = Long.parseLong(System.getenv("KOPEME_CHUNKSTARTTIME"));
+   private static Chunk findChunk(final Datacollector dc, final long start) {
       Chunk current = null;
       for (final Chunk chunk : dc.getChunk()) {
          if (chunk.getChunkStartTime() == start) {
@@ -112,7 +225,7 @@ public final class XMLDataStorer implements DataStorer {
       return current;
    }
 
-   private Datacollector getOrCreateDatacollector(final String collector, final TestcaseType test) {
+   private static Datacollector getOrCreateDatacollector(final String collector, final TestcaseType test) {
       Datacollector dc = null;
       for (final Datacollector dc2 : test.getDatacollector()) {
          LOG.trace("Name: {} Collectorname: {}", dc2.getName(), collector);
@@ -131,7 +244,7 @@ public final class XMLDataStorer implements DataStorer {
       return dc;
    }
 
-   private TestcaseType getOrCreateTestcase(final Result performanceDataMeasure, String testcase) {
+   private static TestcaseType getOrCreateTestcase(final Kopemedata data, String testcase) {
       TestcaseType test = null;
       for (final TestcaseType tc : data.getTestcases().getTestcase()) {
          if (tc.getName().equals(testcase)) {
@@ -150,12 +263,24 @@ public final class XMLDataStorer implements DataStorer {
    private void storeData() {
       try {
          LOG.info("Storing data to: {}", file.getAbsoluteFile());
-         final Marshaller jaxbMarshaller = XMLDataLoader.jc.createMarshaller();
-         jaxbMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
-         jaxbMarshaller.marshal(data, file);
+         JAXBPool.getFormattedMarshaller().marshal(data, file);
       } catch (final JAXBException e) {
          e.printStackTrace();
       }
+      rememberFileState();
+   }
+
+   private void rememberFileState() {
+      savedLastModified = file.lastModified();
+      savedLength = file.length();
+   }
+
+   /**
+    * Returns whether the data of this storer still equals the content of the file, i.e. whether the file has not been changed by anyone else since it has been
+    * read or written by this storer.
+    */
+   private boolean isUpToDate() {
+      return file.lastModified() == savedLastModified && file.length() == savedLength && !AppendingDataStorer.hasAppendedResults(file);
    }
 
    /**
@@ -167,16 +292,7 @@ public final class XMLDataStorer implements DataStorer {
    public static void storeData(final File file, final Kopemedata currentdata) {
       try {
          LOG.info("Storing data to: {}", file.getAbsoluteFile());
-         final Marshaller jaxbMarshaller = XMLDataLoader.jc.createMarshaller();
-         try {
-            jaxbMarshaller.setProperty("com.sun.xml.bind.indentString", " ");
-         } catch (PropertyException e) {
-            LOG.error("Indent String for JAXB can not be set in current JAXB-implementation; consider implementing transformer usage");
-         }
-
-         jaxbMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
-
-         jaxbMarshaller.marshal(currentdata, file);
+         JAXBPool.getSingleIndentMarshaller().marshal(currentdata, file);
       } catch (final JAXBException e) {
          e.printStackTrace();
       }
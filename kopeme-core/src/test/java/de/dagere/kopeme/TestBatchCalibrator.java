@@ -0,0 +1,71 @@
+package de.dagere.kopeme;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.dagere.kopeme.datacollection.DataCollectorList;
+import de.dagere.kopeme.datacollection.RAMUsageCollector;
+import de.dagere.kopeme.datacollection.TestResult;
+import de.dagere.kopeme.datacollection.ThreadGroupCPUCollector;
+import de.dagere.kopeme.datacollection.TimeDataCollector;
+
+public class TestBatchCalibrator {
+
+   private static final long INVOCATION_DURATION = 1000;
+
+   private static void spin(final int invocations) {
+      for (int i = 0; i < invocations; i++) {
+         final long end = System.nanoTime() + INVOCATION_DURATION;
+         while (System.nanoTime() < end) {
+         }
+      }
+   }
+
+   @Test
+   public void testCalibration() throws Throwable {
+      final BatchCalibrator calibrator = new BatchCalibrator(1_000_000);
+      final int invocations = calibrator.calibrate(TestBatchCalibrator::spin);
+      Assert.assertTrue("Invocations: " + invocations, invocations > 100 && invocations <= 1000);
+
+      final long baseline = calibrator.measureBaseline(batchInvocations -> {
+         for (int i = 0; i < batchInvocations; i++) {
+         }
+      }, invocations);
+      Assert.assertTrue("Baseline: " + baseline, baseline >= 0 && baseline < 1_000_000);
+   }
+
+   @Test
+   public void testInvocationTime() {
+      final TestResult tr = new TestResult("testMethod", 5, DataCollectorList.STANDARD, false);
+      Assert.assertTrue(Double.isNaN(tr.getInvocationTime(TimeDataCollector.class.getName())));
+      tr.setBatching(100, 10_000);
+      for (int i = 0; i < 5; i++) {
+         tr.startCollection();
+         spin(100);
+         tr.stopCollection();
+      }
+      tr.finalizeCollection();
+
+      final double invocationTime = tr.getInvocationTime(TimeDataCollector.class.getName());
+      Assert.assertEquals((tr.getValue(TimeDataCollector.class.getName()).doubleValue() - 10_000) / 100, invocationTime, 0.001);
+      Assert.assertTrue("Invocation time: " + invocationTime, invocationTime >= INVOCATION_DURATION - 100);
+      Assert.assertTrue(Double.isNaN(tr.getInvocationTime(RAMUsageCollector.class.getName())));
+   }
+
+   @Test
+   public void testInvocationCPUTime() {
+      final TestResult tr = new TestResult("testMethod", 5, DataCollectorList.EXTENDED, false);
+      tr.setBatching(100, 10_000);
+      for (int i = 0; i < 5; i++) {
+         tr.startCollection();
+         spin(100);
+         tr.stopCollection();
+      }
+      tr.finalizeCollection();
+
+      final double invocationCPUTime = tr.getInvocationTime(ThreadGroupCPUCollector.class.getName());
+      Assert.assertEquals(tr.getValue(ThreadGroupCPUCollector.class.getName()).doubleValue() / 100, invocationCPUTime, 0.001);
+      final double invocationTime = tr.getInvocationTime(TimeDataCollector.class.getName());
+      Assert.assertEquals((tr.getValue(TimeDataCollector.class.getName()).doubleValue() - 10_000) / 100, invocationTime, 0.001);
+   }
+}
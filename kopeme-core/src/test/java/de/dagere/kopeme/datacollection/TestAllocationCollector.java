@@ -0,0 +1,67 @@
+package de.dagere.kopeme.datacollection;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestAllocationCollector {
+
+   private static final int SIZE = 1024 * 1024;
+
+   private static volatile byte[] sink;
+
+   @Test
+   public void testCurrentThread() {
+      final AllocationCollector collector = new AllocationCollector();
+      collector.startCollection();
+      sink = new byte[SIZE];
+      collector.stopCollection();
+      Assert.assertTrue("Allocated: " + collector.getValue(), collector.getValue() >= SIZE);
+      Assert.assertTrue("Allocated: " + collector.getValue(), collector.getValue() < 2 * SIZE);
+   }
+
+   @Test
+   public void testWorkerThreads() throws InterruptedException {
+      final ThreadGroup group = new ThreadGroup("allocation-test");
+      final AtomicLong threadValue = new AtomicLong();
+      final AtomicLong groupValue = new AtomicLong();
+      final AtomicReference<Throwable> error = new AtomicReference<>();
+      final Thread experiment = new Thread(group, () -> {
+         try {
+            final AllocationCollector threadCollector = new AllocationCollector();
+            final ThreadGroupAllocationCollector groupCollector = new ThreadGroupAllocationCollector();
+            final CountDownLatch allocated = new CountDownLatch(1);
+            final CountDownLatch finished = new CountDownLatch(1);
+            groupCollector.startCollection();
+            threadCollector.startCollection();
+            final Thread worker = new Thread(() -> {
+               sink = new byte[SIZE];
+               allocated.countDown();
+               try {
+                  finished.await();
+               } catch (InterruptedException e) {
+                  e.printStackTrace();
+               }
+            });
+            worker.start();
+            allocated.await();
+            threadCollector.stopCollection();
+            groupCollector.stopCollection();
+            finished.countDown();
+            worker.join();
+            threadValue.set(threadCollector.getValue());
+            groupValue.set(groupCollector.getValue());
+         } catch (Throwable t) {
+            error.set(t);
+         }
+      });
+      experiment.start();
+      experiment.join();
+      Assert.assertNull(error.get());
+      Assert.assertTrue("Allocated by experiment thread: " + threadValue.get(), threadValue.get() < SIZE);
+      Assert.assertTrue("Allocated by thread group: " + groupValue.get(), groupValue.get() >= SIZE);
+   }
+}
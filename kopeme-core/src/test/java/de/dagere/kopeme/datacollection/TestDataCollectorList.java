@@ -0,0 +1,56 @@
+package de.dagere.kopeme.datacollection;
+
+import java.util.Map;
+
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.dagere.kopeme.datacollection.TestRunningStatistics.AlternatingCollector;
+
+public class TestDataCollectorList {
+
+   @Test
+   public void testListsAndCollectors() {
+      final DataCollectorList list = DataCollectorList.getList("ONLYTIME_NOGC, AllocationCollector");
+      final Map<String, DataCollector> collectors = list.getDataCollectors();
+      Assert.assertThat(collectors.keySet(), Matchers.containsInAnyOrder(TimeDataCollectorNoGC.class.getName(), AllocationCollector.class.getName()));
+      Assert.assertSame(collectors, list.getDataCollectors());
+      Assert.assertNotSame(DataCollectorList.STANDARD.getDataCollectors(), DataCollectorList.STANDARD.getDataCollectors());
+   }
+
+   @Test
+   public void testServiceLoader() {
+      final DataCollectorList bySimpleName = DataCollectorList.getList("AlternatingCollector");
+      Assert.assertThat(bySimpleName.getDataCollectors().keySet(), Matchers.contains(AlternatingCollector.class.getName()));
+
+      final DataCollectorList byFullName = DataCollectorList.getList(AlternatingCollector.class.getName());
+      Assert.assertThat(byFullName.getDataCollectors().keySet(), Matchers.contains(AlternatingCollector.class.getName()));
+   }
+
+   @Test
+   public void testSystemProperty() {
+      System.setProperty(DataCollectorList.DATACOLLECTORS_PROPERTY, "ONLYTIME");
+      try {
+         final DataCollectorList list = DataCollectorList.getConfiguredList("EXTENDED");
+         Assert.assertThat(list.getDataCollectors().keySet(), Matchers.contains(TimeDataCollector.class.getName()));
+      } finally {
+         System.clearProperty(DataCollectorList.DATACOLLECTORS_PROPERTY);
+      }
+   }
+
+   @Test(expected = RuntimeException.class)
+   public void testUnknownCollector() {
+      DataCollectorList.getList("STANDARD,UnknownCollector");
+   }
+
+   @Test
+   public void testNoCollectorClass() {
+      try {
+         DataCollectorList.getList("TestResult");
+         Assert.fail("A class which is no DataCollector should not be accepted");
+      } catch (final RuntimeException e) {
+         Assert.assertEquals("DataCollector TestResult could not be found", e.getMessage());
+      }
+   }
+}
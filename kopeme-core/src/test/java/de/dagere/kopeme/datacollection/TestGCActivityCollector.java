@@ -0,0 +1,32 @@
+package de.dagere.kopeme.datacollection;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.dagere.kopeme.generated.Result.Fulldata;
+import de.dagere.kopeme.generated.Result.Fulldata.Value;
+
+public class TestGCActivityCollector {
+
+   @Test
+   public void testGCMarkedInFulldata() {
+      final TestResult tr = new TestResult("testMethod", 10, DataCollectorList.GCACTIVITY, false);
+      for (int i = 0; i < 10; i++) {
+         tr.startCollection();
+         if (i == 5) {
+            System.gc();
+         }
+         tr.stopCollection();
+      }
+      tr.finalizeCollection();
+
+      final Fulldata fulldata = tr.getFulldata(TimeDataCollectorNoGC.class.getName());
+      final List<Value> values = fulldata.getValue();
+      Assert.assertEquals(10, values.size());
+      Assert.assertNotNull(values.get(5).getGcCount());
+      Assert.assertTrue(values.get(5).getGcCount() >= 1);
+      Assert.assertTrue(tr.getValue(GCActivityCollector.class.getName()).doubleValue() > 0);
+   }
+}
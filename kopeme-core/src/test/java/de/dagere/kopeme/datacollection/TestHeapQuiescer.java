@@ -0,0 +1,42 @@
+package de.dagere.kopeme.datacollection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestHeapQuiescer {
+
+   private static long runIterations(final HeapQuiescer quiescer, final boolean requiredByCollectors) {
+      final GCActivityMonitor monitor = GCActivityMonitor.getInstance();
+      final long start = monitor.getCollectionCount();
+      for (int i = 0; i < 10; i++) {
+         quiescer.beforeIteration(requiredByCollectors);
+      }
+      return monitor.getCollectionCount() - start;
+   }
+
+   @Test
+   public void testEveryIteration() {
+      Assert.assertTrue(runIterations(new HeapQuiescer(HeapQuiescing.EVERY_ITERATION, 0, 0), true) >= 10);
+      Assert.assertEquals(0, runIterations(new HeapQuiescer(HeapQuiescing.EVERY_ITERATION, 0, 0), false));
+   }
+
+   @Test
+   public void testEveryNIterations() {
+      final long collections = runIterations(new HeapQuiescer(HeapQuiescing.EVERY_N_ITERATIONS, 5, 0), true);
+      Assert.assertTrue("Collections: " + collections, collections >= 2 && collections < 10);
+   }
+
+   @Test
+   public void testNeverAndOccupancy() {
+      Assert.assertEquals(0, runIterations(new HeapQuiescer(HeapQuiescing.NEVER, 0, 0), true));
+      Assert.assertEquals(0, runIterations(new HeapQuiescer(HeapQuiescing.HEAP_OCCUPANCY, 0, 100), true));
+      Assert.assertTrue(runIterations(new HeapQuiescer(HeapQuiescing.HEAP_OCCUPANCY, 0, 0), true) >= 10);
+   }
+
+   @Test
+   public void testDescription() {
+      Assert.assertEquals("EVERY_N_ITERATIONS(100)", new HeapQuiescer(HeapQuiescing.EVERY_N_ITERATIONS, 100, 0).toString());
+      Assert.assertEquals("HEAP_OCCUPANCY(80%)", new HeapQuiescer(HeapQuiescing.HEAP_OCCUPANCY, 0, 80).toString());
+      Assert.assertEquals("NEVER", new HeapQuiescer(HeapQuiescing.NEVER, 0, 0).toString());
+   }
+}
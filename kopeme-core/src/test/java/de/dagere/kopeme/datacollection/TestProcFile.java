@@ -0,0 +1,97 @@
+package de.dagere.kopeme.datacollection;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestProcFile {
+
+   @Rule
+   public TemporaryFolder folder = new TemporaryFolder();
+
+   @Test
+   public void testFields() throws IOException {
+      final File file = folder.newFile("schedstat");
+      Files.write(file.toPath(), "123456 789 42\n".getBytes(StandardCharsets.US_ASCII));
+      final ProcFile procFile = ProcFile.open(file.getAbsolutePath());
+      Assert.assertTrue(procFile.read());
+      Assert.assertEquals(123456, procFile.getField(0));
+      Assert.assertEquals(789, procFile.getField(1));
+      Assert.assertEquals(42, procFile.getField(2));
+      Assert.assertEquals(-1, procFile.getField(3));
+
+      Files.write(file.toPath(), "5 6 7\n".getBytes(StandardCharsets.US_ASCII));
+      Assert.assertTrue(procFile.read());
+      Assert.assertEquals(6, procFile.getField(1));
+      procFile.close();
+   }
+
+   @Test
+   public void testKeyValues() throws IOException {
+      final File file = folder.newFile("status");
+      Files.write(file.toPath(), "Name:\tjava\nvoluntary_ctxt_switches:\t17\nnonvoluntary_ctxt_switches:\t3\n".getBytes(StandardCharsets.US_ASCII));
+      final ProcFile procFile = ProcFile.open(file.getAbsolutePath());
+      Assert.assertTrue(procFile.read());
+      Assert.assertEquals(17, procFile.getValue("voluntary_ctxt_switches:".getBytes(StandardCharsets.US_ASCII)));
+      Assert.assertEquals(3, procFile.getValue("nonvoluntary_ctxt_switches:".getBytes(StandardCharsets.US_ASCII)));
+      Assert.assertEquals(-1, procFile.getValue("missing:".getBytes(StandardCharsets.US_ASCII)));
+      procFile.close();
+   }
+
+   @Test
+   public void testWriteSyscalls() throws IOException {
+      Assume.assumeTrue(new File("/proc/self/io").canRead());
+      final WriteSyscallCollector collector = new WriteSyscallCollector();
+      final File file = folder.newFile("written");
+      collector.startCollection();
+      try (FileOutputStream stream = new FileOutputStream(file)) {
+         for (int i = 0; i < 10; i++) {
+            stream.write(i);
+         }
+      }
+      collector.stopCollection();
+      collector.close();
+      Assert.assertTrue("Write syscalls: " + collector.getValue(), collector.getValue() >= 10);
+   }
+
+   @Test
+   public void testTaskClock() {
+      Assume.assumeTrue(new File("/proc/thread-self/schedstat").exists());
+      final TaskClockCollector collector = new TaskClockCollector();
+      collector.startCollection();
+      final long start = System.nanoTime();
+      while (System.nanoTime() - start < 50 * 1000 * 1000) {
+         Math.sqrt(start);
+      }
+      collector.stopCollection();
+      Assert.assertTrue("Task clock: " + collector.getValue(), collector.getValue() > 0);
+   }
+
+   @Test
+   public void testCloseAndReopen() {
+      Assume.assumeTrue(new File("/proc/thread-self/schedstat").exists());
+      final int openFiles = new File("/proc/self/fd").list().length;
+      final TaskClockCollector collector = new TaskClockCollector();
+      collector.startCollection();
+      collector.stopCollection();
+      collector.close();
+      Assert.assertEquals(openFiles, new File("/proc/self/fd").list().length);
+
+      collector.startCollection();
+      final long start = System.nanoTime();
+      while (System.nanoTime() - start < 10 * 1000 * 1000) {
+         Math.sqrt(start);
+      }
+      collector.stopCollection();
+      collector.close();
+      Assert.assertTrue("Task clock: " + collector.getValue(), collector.getValue() > 0);
+   }
+}
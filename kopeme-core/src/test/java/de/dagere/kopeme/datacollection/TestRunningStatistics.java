@@ -0,0 +1,80 @@
+package de.dagere.kopeme.datacollection;
+
+import java.util.Collections;
+import java.util.Random;
+
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestRunningStatistics {
+
+   /**
+    * Collector which alternately returns 100 and 110.
+    */
+   public static class AlternatingCollector extends DataCollector {
+      private int calls = 0;
+
+      @Override
+      public int getPriority() {
+         return 0;
+      }
+
+      @Override
+      public void startCollection() {
+      }
+
+      @Override
+      public void stopCollection() {
+         calls++;
+      }
+
+      @Override
+      public long getValue() {
+         return calls % 2 == 0 ? 100 : 110;
+      }
+   }
+
+   private static class AlternatingList extends DataCollectorList {
+      AlternatingList() {
+         addDataCollector(AlternatingCollector.class);
+      }
+   }
+
+   @Test
+   public void testEqualsSummaryStatistics() {
+      final RunningStatistics running = new RunningStatistics();
+      final SummaryStatistics summary = new SummaryStatistics();
+      final Random random = new Random(42);
+      for (int i = 0; i < 10000; i++) {
+         final double value = 1E6 + random.nextGaussian() * 1E3;
+         running.addValue(value);
+         summary.addValue(value);
+      }
+      Assert.assertEquals(summary.getN(), running.getCount());
+      Assert.assertEquals(summary.getMean(), running.getMean(), 1E-6);
+      Assert.assertEquals(summary.getStandardDeviation(), running.getStandardDeviation(), 1E-6);
+
+      running.clear();
+      running.addValue(5);
+      Assert.assertTrue(Double.isNaN(running.getVariance()));
+   }
+
+   @Test
+   public void testRelativeStandardDeviationBelow() {
+      final TestResult tr = new TestResult("testMethod", 20, new AlternatingList(), false);
+      final String name = AlternatingCollector.class.getName();
+      Assert.assertFalse(tr.isRelativeStandardDeviationBelow(Collections.singletonMap(name, 0.1)));
+      for (int i = 0; i < 20; i++) {
+         tr.startCollection();
+         tr.stopCollection();
+      }
+      tr.finalizeCollection();
+
+      Assert.assertEquals(20, tr.getRunningStatistics(name).getCount());
+      Assert.assertEquals(105.0, tr.getRunningStatistics(name).getMean(), 0.001);
+      Assert.assertTrue(tr.isRelativeStandardDeviationBelow(Collections.singletonMap(name, 0.1)));
+      Assert.assertFalse(tr.isRelativeStandardDeviationBelow(Collections.singletonMap(name, 0.01)));
+      Assert.assertFalse(tr.isRelativeStandardDeviationBelow(Collections.singletonMap("unknownCollector", 0.1)));
+   }
+}
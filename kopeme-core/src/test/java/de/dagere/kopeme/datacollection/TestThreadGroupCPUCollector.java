@@ -0,0 +1,50 @@
+package de.dagere.kopeme.datacollection;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestThreadGroupCPUCollector {
+
+   private static final long WORK_NANOS = 200 * 1000 * 1000;
+
+   private static void work() {
+      final long start = ManagementFactory.getThreadMXBean().getCurrentThreadCpuTime();
+      while (ManagementFactory.getThreadMXBean().getCurrentThreadCpuTime() - start < WORK_NANOS) {
+         Math.sqrt(start);
+      }
+   }
+
+   @Test
+   public void testEndedWorkerThreads() throws InterruptedException {
+      final ThreadGroup group = new ThreadGroup("cpu-test");
+      final AtomicLong cpuTime = new AtomicLong();
+      final AtomicLong parallelism = new AtomicLong();
+      final AtomicReference<Throwable> error = new AtomicReference<>();
+      final Thread experiment = new Thread(group, () -> {
+         try {
+            final ThreadGroupCPUCollector cpuCollector = new ThreadGroupCPUCollector();
+            final ParallelismCollector parallelismCollector = new ParallelismCollector();
+            cpuCollector.startCollection();
+            parallelismCollector.startCollection();
+            final Thread worker = new Thread(TestThreadGroupCPUCollector::work);
+            worker.start();
+            worker.join();
+            parallelismCollector.stopCollection();
+            cpuCollector.stopCollection();
+            cpuTime.set(cpuCollector.getValue());
+            parallelism.set(parallelismCollector.getValue());
+         } catch (Throwable t) {
+            error.set(t);
+         }
+      });
+      experiment.start();
+      experiment.join();
+      Assert.assertNull(error.get());
+      Assert.assertTrue("CPU time: " + cpuTime.get(), cpuTime.get() > WORK_NANOS / 2);
+      Assert.assertTrue("Parallelism: " + parallelism.get(), parallelism.get() > 0);
+   }
+}
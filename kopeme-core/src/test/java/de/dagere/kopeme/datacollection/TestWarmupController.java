@@ -0,0 +1,88 @@
+package de.dagere.kopeme.datacollection;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestWarmupController {
+
+   @Test
+   public void testDecayingDurations() {
+      final WarmupController controller = new WarmupController(0, 500);
+      final Random random = new Random(1);
+      int iteration = 0;
+      while (!controller.isFinished()) {
+         final double jit = 10000 * Math.exp(-iteration / 15.0);
+         controller.addValue((long) (1000 + jit + random.nextGaussian() * 10));
+         iteration++;
+      }
+      Assert.assertNotEquals(-1, controller.getSteadyStateIteration());
+      Assert.assertTrue("Steady state too early: " + controller.getSteadyStateIteration(), controller.getSteadyStateIteration() > 50);
+      Assert.assertTrue("Steady state too late: " + controller.getSteadyStateIteration(), controller.getSteadyStateIteration() < 150);
+   }
+
+   @Test
+   public void testTrendNeverSteady() {
+      final WarmupController controller = new WarmupController(0, 200);
+      long duration = 100000;
+      while (!controller.addValue(duration)) {
+         duration -= 1000;
+      }
+      Assert.assertEquals(200, controller.getIterations());
+      Assert.assertEquals(-1, controller.getSteadyStateIteration());
+   }
+
+   @Test
+   public void testNoisyDurations() {
+      final WarmupController controller = new WarmupController(0, 1000);
+      final Random random = new Random(2);
+      while (!controller.addValue((long) (1000 + random.nextGaussian() * 300))) {
+      }
+      Assert.assertNotEquals(-1, controller.getSteadyStateIteration());
+      Assert.assertTrue(controller.getIterations() < 100);
+   }
+
+   @Test
+   public void testMinimalIterations() {
+      final WarmupController controller = new WarmupController(50, 0);
+      while (!controller.addValue(1000)) {
+      }
+      Assert.assertEquals(2 * WarmupController.DEFAULT_WINDOW_SIZE, controller.getSteadyStateIteration());
+      Assert.assertEquals(50, controller.getIterations());
+   }
+
+   @Test
+   public void testQuietCompilation() {
+      final long[] compilationTime = new long[] { 0 };
+      final WarmupController controller = new WarmupController(0, 0);
+      controller.setDetectSteadyState(false);
+      controller.setCompilationTimeSource(() -> compilationTime[0]);
+      controller.setQuietCompilationIterations(5);
+      for (int i = 0; i < 30; i++) {
+         compilationTime[0] += 3;
+         Assert.assertFalse(controller.addValue(1000));
+      }
+      for (int i = 0; i < 4; i++) {
+         Assert.assertFalse(controller.addValue(1000));
+      }
+      Assert.assertTrue(controller.addValue(1000));
+      Assert.assertEquals(35, controller.getIterations());
+      Assert.assertEquals(-1, controller.getSteadyStateIteration());
+   }
+
+   @Test
+   public void testQuietCompilationAndSteadyState() {
+      final long[] compilationTime = new long[] { 0 };
+      final WarmupController controller = new WarmupController(0, 0);
+      controller.setCompilationTimeSource(() -> compilationTime[0]);
+      controller.setQuietCompilationIterations(3);
+      while (!controller.addValue(1000)) {
+         if (controller.getIterations() < 40) {
+            compilationTime[0]++;
+         }
+      }
+      Assert.assertEquals(2 * WarmupController.DEFAULT_WINDOW_SIZE, controller.getSteadyStateIteration());
+      Assert.assertEquals(43, controller.getIterations());
+   }
+}
@@ -0,0 +1,71 @@
+package de.dagere.kopeme.datacollection.tempfile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.dagere.kopeme.datacollection.DataCollector;
+import de.dagere.kopeme.datacollection.tempfile.TestWrittenResultReader.FixedValueCollector;
+import de.dagere.kopeme.generated.Result.Fulldata;
+
+public class TestMappedResultReader {
+
+   @Test
+   public void testBinaryColumns() throws IOException {
+      final FixedValueCollector a = new FixedValueCollector("a");
+      final FixedValueCollector b = new FixedValueCollector("b");
+      final DataCollector[] collectors = new DataCollector[] { a, b };
+      final ResultTempWriter writer = new ResultTempWriter(false);
+      writer.setDataCollectors(collectors);
+      for (int i = 0; i < 3000; i++) {
+         writer.executionStart(i);
+         a.value = 2 * i;
+         b.value = 3 * i;
+         writer.writeValues(collectors);
+      }
+      writer.finalizeCollection();
+
+      final MappedResultReader reader = new MappedResultReader(writer.getTempFile());
+      reader.read(new HashSet<>(Arrays.asList("a", "b")), Collections.singleton("b"));
+      Assert.assertEquals(3000, reader.getIterations());
+      Assert.assertNull(reader.getColumn("a"));
+      final long[] column = reader.getColumn("b");
+      Assert.assertEquals(3000, column.length);
+      Assert.assertEquals(3 * 2999, column[2999]);
+      Assert.assertEquals(2 * 2999, reader.getCollectorSummary("a").getMax(), 0.001);
+      Assert.assertEquals(1500, reader.getExecutionStartTimes()[1500]);
+
+      final Fulldata fulldata = reader.createFulldata(1000, "b");
+      Assert.assertEquals(2000, fulldata.getValue().size());
+      Assert.assertEquals(3000L, fulldata.getValue().get(0).getValue());
+
+      Assert.assertTrue(writer.getTempFile().delete());
+   }
+
+   @Test
+   public void testTextFormat() throws IOException {
+      final File file = Files.createTempFile("kopeme-", ".tmp").toFile();
+      Files.write(file.toPath(), Arrays.asList("i:0=de.dagere.Time", "i:1=de.dagere.RAM",
+            "1000", "0=5", "1=-7",
+            "1001", "0=15", "1=17",
+            "1002"));
+
+      final Set<String> keys = new HashSet<>(Arrays.asList("de.dagere.Time", "de.dagere.RAM"));
+      final MappedResultReader reader = new MappedResultReader(file);
+      reader.read(keys, keys);
+      Assert.assertEquals(2, reader.getIterations());
+      Assert.assertEquals(3, reader.getStartedIterations());
+      Assert.assertArrayEquals(new long[] { -7, 17 }, reader.getColumn("de.dagere.RAM"));
+      Assert.assertArrayEquals(new long[] { 1000, 1001, 1002 }, reader.getExecutionStartTimes());
+      Assert.assertEquals(10.0, reader.getCollectorSummary("de.dagere.Time").getMean(), 0.001);
+
+      Assert.assertTrue(file.delete());
+   }
+}
@@ -0,0 +1,52 @@
+package de.dagere.kopeme.datacollection.tempfile;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.dagere.kopeme.PerformanceTestUtils;
+
+public class TestPercentileSketch {
+
+   @Test
+   public void testPositiveValues() {
+      final PercentileSketch sketch = new PercentileSketch();
+      final long[] values = new long[10000];
+      for (int i = 0; i < values.length; i++) {
+         values[i] = 1000 + i * 37L;
+         sketch.addValue(values[i]);
+      }
+
+      final double[] exact = PerformanceTestUtils.getPercentiles(values, values.length, 50, 90, 99, 99.9);
+      Assert.assertEquals(exact[0], sketch.getPercentile(50), exact[0] * 0.002);
+      Assert.assertEquals(exact[1], sketch.getPercentile(90), exact[1] * 0.002);
+      Assert.assertEquals(exact[2], sketch.getPercentile(99), exact[2] * 0.002);
+      Assert.assertEquals(exact[3], sketch.getPercentile(99.9), exact[3] * 0.002);
+   }
+
+   @Test
+   public void testNegativeValues() {
+      final PercentileSketch sketch = new PercentileSketch();
+      for (int i = -50; i < 50; i++) {
+         sketch.addValue(i);
+      }
+
+      Assert.assertEquals(-50, sketch.getPercentile(1), 0.001);
+      Assert.assertEquals(-1, sketch.getPercentile(50), 0.001);
+      Assert.assertEquals(0, sketch.getPercentile(51), 0.001);
+      Assert.assertEquals(49, sketch.getPercentile(100), 0.001);
+   }
+
+   @Test
+   public void testMerge() {
+      final PercentileSketch first = new PercentileSketch();
+      final PercentileSketch second = new PercentileSketch();
+      for (int i = 1; i <= 100; i++) {
+         first.addValue(i);
+         second.addValue(100 + i);
+      }
+      first.add(second);
+
+      Assert.assertEquals(200, first.getCount());
+      Assert.assertEquals(100, first.getPercentile(50), 0.001);
+   }
+}
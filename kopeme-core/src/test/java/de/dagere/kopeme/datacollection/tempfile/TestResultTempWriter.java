@@ -0,0 +1,71 @@
+package de.dagere.kopeme.datacollection.tempfile;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.dagere.kopeme.datacollection.DataCollector;
+import de.dagere.kopeme.datacollection.tempfile.TestWrittenResultReader.FixedValueCollector;
+
+public class TestResultTempWriter {
+
+   private WrittenResultReader writeAndRead(final ResultTempWriter writer, final int iterations) {
+      final FixedValueCollector a = new FixedValueCollector("a");
+      final FixedValueCollector b = new FixedValueCollector("b");
+      final DataCollector[] collectors = new DataCollector[] { a, b };
+      writer.setDataCollectors(collectors);
+      for (int i = 0; i < iterations; i++) {
+         writer.executionStart(i);
+         a.value = i;
+         b.value = 2 * i;
+         writer.writeValues(collectors);
+      }
+      writer.finalizeCollection();
+
+      final WrittenResultReader reader = new WrittenResultReader(writer.getTempFile());
+      reader.read(null, new HashSet<>(Arrays.asList("a", "b")));
+      return reader;
+   }
+
+   @Test
+   public void testPlannedExecutionsNotSpilled() throws IOException {
+      final ResultTempWriter writer = new ResultTempWriter(false, 100);
+      final WrittenResultReader reader = writeAndRead(writer, 100);
+
+      Assert.assertFalse(writer.isAsynchronous());
+      Assert.assertEquals(0, writer.getStalls());
+      Assert.assertEquals(100, reader.getColumns().getIterations());
+      Assert.assertEquals(198L, reader.getColumns().getColumn("b")[99]);
+      reader.deleteTempFile();
+   }
+
+   @Test
+   public void testAdditionalExecutionsSpilled() throws IOException {
+      final ResultTempWriter writer = new ResultTempWriter(false, 10);
+      final WrittenResultReader reader = writeAndRead(writer, 25);
+
+      Assert.assertEquals(2, writer.getStalls());
+      Assert.assertEquals(25, reader.getColumns().getIterations());
+      Assert.assertEquals(24L, reader.getColumns().getStartTimes()[24]);
+      Assert.assertEquals(24L, reader.getColumns().getColumn("a")[24]);
+      Assert.assertEquals(48L, reader.getColumns().getColumn("b")[24]);
+      reader.deleteTempFile();
+   }
+
+   @Test
+   public void testAsynchronousDrain() throws IOException {
+      final ResultTempWriter writer = new ResultTempWriter(false, 10000, 300);
+      final WrittenResultReader reader = writeAndRead(writer, 10000);
+
+      Assert.assertTrue(writer.isAsynchronous());
+      Assert.assertEquals(10000, reader.getColumns().getIterations());
+      for (int i = 0; i < 10000; i++) {
+         Assert.assertEquals(i, reader.getColumns().getStartTimes()[i]);
+         Assert.assertEquals(2L * i, reader.getColumns().getColumn("b")[i]);
+      }
+      reader.deleteTempFile();
+   }
+}
@@ -0,0 +1,203 @@
+package de.dagere.kopeme.datacollection.tempfile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.dagere.kopeme.datacollection.DataCollector;
+import de.dagere.kopeme.datacollection.GCActivityCollector;
+import de.dagere.kopeme.generated.Result.Fulldata;
+
+public class TestWrittenResultReader {
+
+   private static final String COLLECTOR_A = "collectorA";
+   private static final String COLLECTOR_B = "collectorB";
+
+   static class FixedValueCollector extends DataCollector {
+      private final String name;
+      long value;
+
+      FixedValueCollector(final String name) {
+         this.name = name;
+      }
+
+      @Override
+      public String getName() {
+         return name;
+      }
+
+      @Override
+      public int getPriority() {
+         return 0;
+      }
+
+      @Override
+      public void startCollection() {
+      }
+
+      @Override
+      public void stopCollection() {
+      }
+
+      @Override
+      public long getValue() {
+         return value;
+      }
+   }
+
+   private File writeBinaryFile(final int iterations) throws IOException {
+      final FixedValueCollector a = new FixedValueCollector(COLLECTOR_A);
+      final FixedValueCollector b = new FixedValueCollector(COLLECTOR_B);
+      final DataCollector[] collectors = new DataCollector[] { a, b };
+      final ResultTempWriter writer = new ResultTempWriter(false);
+      writer.setDataCollectors(collectors);
+      for (int i = 0; i < iterations; i++) {
+         writer.executionStart(1000 + i);
+         a.value = i;
+         b.value = -i;
+         writer.writeValues(collectors);
+      }
+      writer.finalizeCollection();
+      return writer.getTempFile();
+   }
+
+   private Set<String> keys() {
+      return new HashSet<>(Arrays.asList(COLLECTOR_A, COLLECTOR_B));
+   }
+
+   @Test
+   public void testBinaryRoundtrip() throws IOException {
+      final File file = writeBinaryFile(100);
+      final WrittenResultReader reader = new WrittenResultReader(file);
+      reader.read(null, keys());
+
+      final ResultColumns columns = reader.getColumns();
+      Assert.assertEquals(100, columns.getIterations());
+      Assert.assertEquals(100, columns.getStartedIterations());
+      Assert.assertEquals(1042L, columns.getStartTimes()[42]);
+      Assert.assertEquals(42L, columns.getColumn(COLLECTOR_A)[42]);
+      Assert.assertEquals(-42L, columns.getColumn(COLLECTOR_B)[42]);
+      Assert.assertEquals(49.5, reader.getFinalValues().get(COLLECTOR_A).doubleValue(), 0.001);
+
+      final Fulldata fulldata = reader.createFulldata(10, COLLECTOR_B);
+      Assert.assertEquals(90, fulldata.getValue().size());
+      Assert.assertEquals(-10L, fulldata.getValue().get(0).getValue());
+      reader.deleteTempFile();
+   }
+
+   @Test
+   public void testBinaryStreaming() throws IOException {
+      final File file = writeBinaryFile(5000);
+      final WrittenResultReader reader = new WrittenResultReader(file);
+      reader.readStreaming(null, keys());
+
+      Assert.assertEquals(5000, reader.getCollectorSummary(COLLECTOR_A).getN());
+      Assert.assertEquals(4999.0, reader.getCollectorSummary(COLLECTOR_A).getMax(), 0.001);
+      Assert.assertEquals(-4999.0, reader.getCollectorSummary(COLLECTOR_B).getMin(), 0.001);
+      Assert.assertEquals(-2499.5, reader.getFinalValues().get(COLLECTOR_B).doubleValue(), 0.001);
+      Assert.assertEquals(4949.0, reader.getPercentiles(COLLECTOR_A, 99)[0], 4949 * 0.002);
+      Assert.assertEquals(-4949.0, reader.getPercentiles(COLLECTOR_B, 1)[0], 4949 * 0.002);
+      Assert.assertEquals(5000, reader.getColumns().getStartedIterations());
+      Assert.assertNull(reader.getColumns().getStartTimes());
+      reader.deleteTempFile();
+   }
+
+   @Test
+   public void testSetValues() throws IOException {
+      final File file = writeBinaryFile(10);
+      final WrittenResultReader reader = new WrittenResultReader(file);
+      reader.read(null, keys());
+
+      reader.setValues(COLLECTOR_A, new long[] { 3, 5, 7 }, 3);
+      Assert.assertEquals(3, reader.getColumns().getColumnLength(COLLECTOR_A));
+      Assert.assertEquals(10, reader.getColumns().getColumnLength(COLLECTOR_B));
+      Assert.assertEquals(4.5, reader.getFinalValues().get(COLLECTOR_A).doubleValue(), 0.001);
+      Assert.assertEquals(9.0, reader.getCollectorSummary(COLLECTOR_A).getMax(), 0.001);
+      final Fulldata fulldata = reader.createFulldata(0, COLLECTOR_A);
+      Assert.assertEquals(3, fulldata.getValue().size());
+      Assert.assertEquals(reader.createFulldata(0, COLLECTOR_B).getValue().get(5).getStart(), fulldata.getValue().get(1).getStart());
+
+      reader.setValues(COLLECTOR_A, new long[] { 7 }, 1);
+      Assert.assertEquals(reader.createFulldata(0, COLLECTOR_B).getValue().get(7).getStart(), reader.createFulldata(0, COLLECTOR_A).getValue().get(0).getStart());
+
+      reader.clear(COLLECTOR_B);
+      Assert.assertNull(reader.getColumns().getColumn(COLLECTOR_B));
+      reader.deleteTempFile();
+   }
+
+   @Test
+   public void testUnfinishedIteration() throws IOException {
+      final FixedValueCollector a = new FixedValueCollector(COLLECTOR_A);
+      final DataCollector[] collectors = new DataCollector[] { a };
+      final ResultTempWriter writer = new ResultTempWriter(false);
+      writer.setDataCollectors(collectors);
+      writer.executionStart(1);
+      writer.writeValues(collectors);
+      writer.executionStart(2);
+      writer.finalizeCollection();
+
+      final WrittenResultReader reader = new WrittenResultReader(writer.getTempFile());
+      try {
+         reader.read(null, new HashSet<>(Arrays.asList(COLLECTOR_A)));
+         Assert.fail("Unfinished iteration should be detected");
+      } catch (RuntimeException e) {
+         Assert.assertTrue(e.getMessage().startsWith("Count of executions is wrong"));
+      }
+      reader.deleteTempFile();
+   }
+
+   @Test
+   public void testLegacyTextFormat() throws IOException {
+      final File file = Files.createTempFile("kopeme-", ".tmp").toFile();
+      Files.write(file.toPath(), Arrays.asList("i:0=" + COLLECTOR_A, "i:1=" + COLLECTOR_B,
+            "1000", "0=5", "1=7",
+            "1001", "0=15", "1=17"));
+
+      final WrittenResultReader reader = new WrittenResultReader(file);
+      reader.read(null, keys());
+      Assert.assertEquals(2, reader.getColumns().getIterations());
+      Assert.assertEquals(10.0, reader.getFinalValues().get(COLLECTOR_A).doubleValue(), 0.001);
+      Assert.assertEquals(17L, reader.getColumns().getColumn(COLLECTOR_B)[1]);
+
+      final WrittenResultReader streamingReader = new WrittenResultReader(file);
+      streamingReader.readStreaming(null, keys());
+      Assert.assertEquals(12.0, streamingReader.getFinalValues().get(COLLECTOR_B).doubleValue(), 0.001);
+      streamingReader.deleteTempFile();
+   }
+
+   @Test
+   public void testGCMarkedInFulldata() throws IOException {
+      final FixedValueCollector a = new FixedValueCollector(COLLECTOR_A);
+      final FixedValueCollector gc = new FixedValueCollector(GCActivityCollector.class.getName());
+      final DataCollector[] collectors = new DataCollector[] { a, gc };
+      final ResultTempWriter writer = new ResultTempWriter(false);
+      writer.setDataCollectors(collectors);
+      for (int i = 0; i < 10; i++) {
+         writer.executionStart(1000 + i);
+         a.value = i;
+         gc.value = i == 5 ? 2 : 0;
+         writer.writeValues(collectors);
+      }
+      writer.finalizeCollection();
+
+      final WrittenResultReader reader = new WrittenResultReader(writer.getTempFile());
+      reader.read(null, new HashSet<>(Arrays.asList(COLLECTOR_A, GCActivityCollector.class.getName())));
+      final Fulldata fulldata = reader.createFulldata(2, COLLECTOR_A);
+      Assert.assertEquals(8, fulldata.getValue().size());
+      Assert.assertEquals(Long.valueOf(2), fulldata.getValue().get(3).getGcCount());
+      Assert.assertNull(fulldata.getValue().get(2).getGcCount());
+
+      reader.setValues(COLLECTOR_A, new long[] { 1, 5, 6 }, 3);
+      final Fulldata withoutOutliers = reader.createFulldata(0, COLLECTOR_A);
+      Assert.assertNull(withoutOutliers.getValue().get(0).getGcCount());
+      Assert.assertEquals(Long.valueOf(2), withoutOutliers.getValue().get(1).getGcCount());
+      Assert.assertEquals(Long.valueOf(1005), withoutOutliers.getValue().get(1).getStart());
+      reader.deleteTempFile();
+   }
+}
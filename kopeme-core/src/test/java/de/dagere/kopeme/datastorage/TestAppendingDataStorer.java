@@ -0,0 +1,110 @@
+package de.dagere.kopeme.datastorage;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.JAXBException;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.dagere.kopeme.generated.Kopemedata;
+import de.dagere.kopeme.generated.Result;
+import de.dagere.kopeme.generated.TestcaseType;
+
+public class TestAppendingDataStorer {
+
+   @Rule
+   public TemporaryFolder folder = new TemporaryFolder();
+
+   private Result createResult(final double value) {
+      final Result result = new Result();
+      result.setValue(value);
+      result.setIterations(10);
+      return result;
+   }
+
+   @Test
+   public void testAppendAndCompact() throws JAXBException, IOException {
+      final File resultFolder = folder.newFolder();
+      final AppendingDataStorer storer = new AppendingDataStorer(resultFolder, "de.test.Clazz", "testMethod");
+      for (int i = 0; i < 5; i++) {
+         storer.storeValue(createResult(i), "testMethod", "collectorA");
+      }
+      storer.storeValue(createResult(42), "testMethod", "collectorB");
+
+      final File xmlFile = new File(resultFolder, "testMethod.xml");
+      Assert.assertFalse(xmlFile.exists());
+      Assert.assertTrue(AppendingDataStorer.getLogFile(xmlFile).exists());
+
+      checkData(new XMLDataLoader(xmlFile).getFullData());
+      Assert.assertFalse(xmlFile.exists());
+      Assert.assertTrue(AppendingDataStorer.getLogFile(xmlFile).exists());
+
+      storer.compact();
+      Assert.assertTrue(xmlFile.exists());
+      Assert.assertFalse(AppendingDataStorer.hasAppendedResults(xmlFile));
+      checkData(new XMLDataLoader(xmlFile).getFullData());
+   }
+
+   private void checkData(final Kopemedata data) {
+      Assert.assertEquals("de.test.Clazz", data.getTestcases().getClazz());
+      final TestcaseType testcase = data.getTestcases().getTestcase().get(0);
+      Assert.assertEquals(2, testcase.getDatacollector().size());
+      Assert.assertEquals(5, testcase.getDatacollector().get(0).getResult().size());
+      Assert.assertEquals(4.0, testcase.getDatacollector().get(0).getResult().get(4).getValue(), 0.001);
+      Assert.assertEquals(42.0, testcase.getDatacollector().get(1).getResult().get(0).getValue(), 0.001);
+   }
+
+   @Test
+   public void testAppendToExistingXML() throws JAXBException, IOException {
+      final File resultFolder = folder.newFolder();
+      final XMLDataStorer xmlStorer = new XMLDataStorer(resultFolder, "de.test.Clazz", "testMethod");
+      xmlStorer.storeValue(createResult(1), "testMethod", "collectorA");
+
+      final AppendingDataStorer storer = new AppendingDataStorer(resultFolder, "de.test.Clazz", "testMethod");
+      storer.storeValue(createResult(2), "testMethod", "collectorA");
+      final XMLDataStorer nextXmlStorer = new XMLDataStorer(resultFolder, "de.test.Clazz", "testMethod");
+      nextXmlStorer.storeValue(createResult(3), "testMethod", "collectorA");
+
+      final File xmlFile = new File(resultFolder, "testMethod.xml");
+      Assert.assertFalse(AppendingDataStorer.hasAppendedResults(xmlFile));
+      final Kopemedata data = XMLDataLoader.loadData(xmlFile);
+      Assert.assertEquals(3, data.getTestcases().getTestcase().get(0).getDatacollector().get(0).getResult().size());
+      Assert.assertEquals(2.0, data.getTestcases().getTestcase().get(0).getDatacollector().get(0).getResult().get(1).getValue(), 0.001);
+   }
+
+   @Test
+   public void testAppendDuringCompaction() throws JAXBException, IOException, InterruptedException {
+      final File resultFolder = folder.newFolder();
+      final File xmlFile = new File(resultFolder, "testMethod.xml");
+      final int appenders = 4;
+      final int resultsPerAppender = 25;
+      final List<Thread> threads = new ArrayList<>();
+      for (int i = 0; i < appenders; i++) {
+         final Thread thread = new Thread(() -> {
+            final AppendingDataStorer storer = new AppendingDataStorer(resultFolder, "de.test.Clazz", "testMethod");
+            for (int j = 0; j < resultsPerAppender; j++) {
+               storer.storeValue(createResult(j), "testMethod", "collectorA");
+            }
+         });
+         thread.start();
+         threads.add(thread);
+      }
+      for (final Thread thread : threads) {
+         while (thread.isAlive()) {
+            AppendingDataStorer.compact(xmlFile);
+            thread.join(1);
+         }
+      }
+      AppendingDataStorer.compact(xmlFile);
+
+      Assert.assertFalse(AppendingDataStorer.hasAppendedResults(xmlFile));
+      final Kopemedata data = XMLDataLoader.loadData(xmlFile);
+      Assert.assertEquals(appenders * resultsPerAppender, data.getTestcases().getTestcase().get(0).getDatacollector().get(0).getResult().size());
+   }
+}
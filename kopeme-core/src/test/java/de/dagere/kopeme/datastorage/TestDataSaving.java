@@ -1,7 +1,9 @@
 package de.dagere.kopeme.datastorage;
 
 import java.io.File;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.bind.JAXBException;
 
@@ -32,6 +34,48 @@ public class TestDataSaving {
       testLoadedResults();
    }
    
+   @Test
+   public void testStoreValues() throws Exception {
+      final File folder = new File("target/storevalues");
+      folder.mkdirs();
+      final File resultFile = new File(folder, "testMethod.xml");
+      resultFile.delete();
+      final XMLDataStorer storer = new XMLDataStorer(folder, "de.test.Clazz", "testMethod");
+      final Map<String, Result> results = new LinkedHashMap<>();
+      results.put("CollectorA", createResult(15.5));
+      results.put("CollectorB", createResult(16.5));
+      storer.storeValues("testMethod", results);
+
+      final Kopemedata data = XMLDataLoader.loadData(resultFile);
+      final TestcaseType testcase = data.getTestcases().getTestcase().get(0);
+      Assert.assertEquals(2, testcase.getDatacollector().size());
+      assertCorrectResult(testcase.getDatacollector().get(1).getResult().get(0), 16.5);
+      Assert.assertEquals(EnvironmentUtil.getCPU(), testcase.getDatacollector().get(0).getResult().get(0).getCpu());
+   }
+
+   @Test
+   public void testStorerCache() throws Exception {
+      final File folder = new File("target/storercache");
+      folder.mkdirs();
+      final File resultFile = new File(folder, "testMethod.xml");
+      resultFile.delete();
+      final XMLDataStorer storer = XMLDataStorer.getInstance(folder, "de.test.Clazz", "testMethod");
+      storer.storeValue(createResult(15.5), "testMethod", "CollectorA");
+      Assert.assertSame(storer, XMLDataStorer.getInstance(folder, "de.test.Clazz", "testMethod"));
+
+      final Kopemedata otherData = createData();
+      otherData.getTestcases().getTestcase().get(0).setName("otherMethod");
+      XMLDataStorer.storeData(resultFile, otherData);
+      final XMLDataStorer reloadedStorer = XMLDataStorer.getInstance(folder, "de.test.Clazz", "testMethod");
+      Assert.assertNotSame(storer, reloadedStorer);
+      reloadedStorer.storeValue(createResult(16.5), "testMethod", "CollectorA");
+      Assert.assertEquals(2, XMLDataLoader.loadData(resultFile).getTestcases().getTestcase().size());
+
+      Assert.assertNotSame(reloadedStorer, XMLDataStorer.getInstance(folder, "de.test.OtherClazz", "testMethod"));
+      XMLDataStorer.clearCache();
+      Assert.assertNotSame(reloadedStorer, XMLDataStorer.getInstance(folder, "de.test.Clazz", "testMethod"));
+   }
+
 //   @Test
 //   public void testSavingSAX() throws Exception {
 //      Kopemedata data = createData();
@@ -0,0 +1,37 @@
+package de.dagere.kopeme.datastorage;
+
+import java.io.IOException;
+import java.util.Scanner;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import de.dagere.kopeme.generated.Result.Environment;
+
+public class TestEnvironmentUtil {
+
+   private static String getShellResult(final String command) throws IOException {
+      final Process process = new ProcessBuilder("/bin/sh", "-c", command).start();
+      try (Scanner scanner = new Scanner(process.getInputStream())) {
+         return scanner.useDelimiter("\\A").next().replace("\t", " ").replace("  ", "").replace("\n", "");
+      }
+   }
+
+   @Test
+   public void testSameFormatAsShell() throws IOException {
+      Assume.assumeTrue(System.getProperty("os.name").startsWith("Linux"));
+      Assume.assumeFalse("0".equals(getShellResult("cat /proc/cpuinfo | grep -c \"model name\"")));
+
+      Assert.assertEquals(getShellResult("cat /proc/cpuinfo | grep \"model name\" | uniq"), EnvironmentUtil.getCPU());
+      Assert.assertEquals(getShellResult("cat /proc/meminfo | grep \"MemTotal\""), EnvironmentUtil.getMemory());
+   }
+
+   @Test
+   public void testEnvironment() {
+      final Environment environment = EnvironmentUtil.createEnvironment();
+      Assert.assertNotNull(environment.getOnlineCpus());
+      Assert.assertNotNull(environment.getGc());
+      Assert.assertSame(EnvironmentUtil.getCPU(), EnvironmentUtil.getCPU());
+   }
+}
@@ -0,0 +1,71 @@
+package de.dagere.kopeme.datastorage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.dagere.kopeme.generated.Kopemedata;
+import de.dagere.kopeme.generated.Kopemedata.Testcases;
+import de.dagere.kopeme.generated.Result;
+import de.dagere.kopeme.generated.Result.Fulldata;
+import de.dagere.kopeme.generated.Result.Fulldata.Value;
+
+public class TestParallelDataLoader {
+
+   @Rule
+   public TemporaryFolder folder = new TemporaryFolder();
+
+   private void writeResultFile(final File classFolder, final long date) {
+      final File timestampFolder = new File(classFolder, Long.toString(date));
+      timestampFolder.mkdirs();
+      final Kopemedata data = new Kopemedata();
+      data.setTestcases(new Testcases());
+      data.getTestcases().setClazz("de.test.Clazz");
+      for (final String collector : new String[] { "collectorA", "collectorB" }) {
+         final Result result = new Result();
+         result.setDate(date);
+         result.setValue(date * 2);
+         result.setFulldata(new Fulldata());
+         result.getFulldata().setFileName("fulldata_" + collector + ".tmp");
+         final Value value = new Value();
+         value.setStart(date);
+         value.setValue(date);
+         result.getFulldata().getValue().add(value);
+         XMLDataStorer.addResult(data, result, "testMethod", collector, null);
+      }
+      XMLDataStorer.storeData(new File(timestampFolder, "testMethod.xml"), data);
+   }
+
+   @Test
+   public void testLoadFolders() throws IOException {
+      final File classFolder = folder.newFolder("de.test.Clazz");
+      for (final long date : new long[] { 30, 10, 20, 40 }) {
+         writeResultFile(classFolder, date);
+      }
+      final File broken = new File(classFolder, "50/testMethod.xml");
+      broken.getParentFile().mkdirs();
+      Files.write(broken.toPath(), "<kopemedata>".getBytes(StandardCharsets.UTF_8));
+
+      final ResultIndex index = new ParallelDataLoader(folder.getRoot(), 2).load();
+
+      final String test = ResultIndex.getTestName("de.test.Clazz", "testMethod");
+      Assert.assertEquals(1, index.getTests().size());
+      Assert.assertEquals(2, index.getCollectors(test).size());
+      Assert.assertEquals(8, index.size());
+
+      final List<ResultIndex.Entry> entries = index.getEntries(test, "collectorA");
+      Assert.assertEquals(4, entries.size());
+      Assert.assertEquals(10L, entries.get(0).getResult().getDate().longValue());
+      Assert.assertEquals(80.0, entries.get(3).getResult().getValue(), 0.001);
+      Assert.assertEquals(new File(classFolder, "40/fulldata_collectorA.tmp"), entries.get(3).getFulldataFile());
+      Assert.assertTrue(entries.get(3).getResult().getFulldata().getValue().isEmpty());
+      Assert.assertTrue(index.getEntries(test, "collectorC").isEmpty());
+   }
+}
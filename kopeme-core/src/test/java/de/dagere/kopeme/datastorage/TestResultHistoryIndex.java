@@ -0,0 +1,132 @@
+package de.dagere.kopeme.datastorage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.bind.JAXBException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.dagere.kopeme.generated.Result;
+import de.dagere.kopeme.generated.Result.Fulldata;
+
+public class TestResultHistoryIndex {
+
+   @Rule
+   public TemporaryFolder folder = new TemporaryFolder();
+
+   private String oldDefaultFolder;
+
+   @Before
+   public void setKopemeFolder() {
+      oldDefaultFolder = FolderProvider.getInstance().getKopemeDefaultFolder();
+      FolderProvider.getInstance().setKopemeDefaultFolder(folder.getRoot().getAbsolutePath());
+   }
+
+   @After
+   public void resetKopemeFolder() {
+      FolderProvider.getInstance().setKopemeDefaultFolder(oldDefaultFolder);
+   }
+
+   private Result createResult(final long date, final double value) {
+      final Result result = new Result();
+      result.setDate(date);
+      result.setValue(value);
+      result.setDeviation(1.5);
+      result.setIterations(10);
+      return result;
+   }
+
+   @Test
+   public void testIndexUpdatedByStorer() throws JAXBException {
+      final File classFolder = new File(FolderProvider.getInstance().getProjectFolder(), "de.test.Clazz");
+      classFolder.mkdirs();
+      final XMLDataStorer storer = new XMLDataStorer(classFolder, "de.test.Clazz", "testMethod");
+      storer.storeValue(createResult(20, 2.0), "testMethod", "collectorA");
+      storer.storeValue(createResult(10, 1.0), "testMethod", "collectorA");
+
+      final ResultHistoryIndex index = ResultHistoryIndex.getCurrentProjectIndex();
+      List<ResultHistoryIndex.Entry> history = index.getHistory("de.test.Clazz", "testMethod", "collectorA");
+      Assert.assertEquals(2, history.size());
+      Assert.assertEquals(10, history.get(0).getDate());
+      Assert.assertEquals(2.0, history.get(1).getValue(), 0.001);
+      Assert.assertEquals(1.5, history.get(1).getDeviation(), 0.001);
+      Assert.assertEquals(10, history.get(1).getIterations());
+      Assert.assertNull(history.get(0).getFulldataFile());
+
+      storer.storeValue(createResult(30, 3.0), "testMethod", "collectorA");
+      history = index.getHistory("de.test.Clazz", "testMethod", "collectorA");
+      Assert.assertEquals(3, history.size());
+      Assert.assertEquals(3.0, history.get(2).getValue(), 0.001);
+      Assert.assertTrue(index.getHistory("de.test.Clazz", "testMethod", "collectorB").isEmpty());
+   }
+
+   @Test
+   public void testFulldataFile() throws IOException {
+      final File projectFolder = folder.newFolder("project");
+      final ResultHistoryIndex index = new ResultHistoryIndex(projectFolder);
+      index.rebuild();
+      final Result result = createResult(10, 1.0);
+      result.setFulldata(new Fulldata());
+      result.getFulldata().setFileName("fulldata_10.tmp");
+      ResultHistoryIndex.append(projectFolder, Paths.get("de.test.Clazz", "testMethod.xml"), "de.test.Clazz", "testMethod",
+            Collections.singletonMap("collectorA", result));
+
+      final List<ResultHistoryIndex.Entry> history = index.getHistory("de.test.Clazz", "testMethod", "collectorA");
+      Assert.assertEquals(1, history.size());
+      Assert.assertEquals(new File(projectFolder, "de.test.Clazz/fulldata_10.tmp"), history.get(0).getFulldataFile());
+      Assert.assertTrue(Double.isNaN(history.get(0).getMin()));
+   }
+
+   @Test
+   public void testRebuildFromExistingResults() throws JAXBException, IOException {
+      final File classFolder = new File(FolderProvider.getInstance().getProjectFolder(), "de.test.Clazz");
+      classFolder.mkdirs();
+      final XMLDataStorer storer = new XMLDataStorer(classFolder, "de.test.Clazz", "testMethod");
+      storer.storeValue(createResult(10, 1.0), "testMethod", "collectorA");
+      storer.storeValue(createResult(20, 2.0), "testMethod", "collectorA");
+      final File indexFile = new File(FolderProvider.getInstance().getProjectFolder(), ResultHistoryIndex.INDEX_FILE_NAME);
+      Assert.assertFalse(indexFile.exists());
+
+      List<ResultHistoryIndex.Entry> history = ResultHistoryIndex.getCurrentProjectIndex().getHistory("de.test.Clazz", "testMethod", "collectorA");
+      Assert.assertEquals(2, history.size());
+      Assert.assertEquals(2.0, history.get(1).getValue(), 0.001);
+      Assert.assertTrue(indexFile.exists());
+
+      Assert.assertTrue(indexFile.delete());
+      storer.storeValue(createResult(30, 3.0), "testMethod", "collectorA");
+      Assert.assertFalse(indexFile.exists());
+      final ResultHistoryIndex index = ResultHistoryIndex.getCurrentProjectIndex();
+      history = index.getHistory("de.test.Clazz", "testMethod", "collectorA");
+      Assert.assertEquals(3, history.size());
+      Assert.assertEquals(3.0, history.get(2).getValue(), 0.001);
+
+      ResultHistoryIndex.append(FolderProvider.getInstance().getProjectFolder(), Paths.get("de.test.Clazz", "testMethod.xml"), "de.test.Clazz", "testMethod",
+            Collections.singletonMap("collectorA", XMLDataLoader.loadData(new File(classFolder, "testMethod.xml")).getTestcases().getTestcase().get(0).getDatacollector().get(0).getResult().get(2)));
+      Assert.assertEquals(3, index.getHistory("de.test.Clazz", "testMethod", "collectorA").size());
+
+      index.rebuild();
+      Assert.assertEquals(3, index.getHistory("de.test.Clazz", "testMethod", "collectorA").size());
+   }
+
+   @Test
+   public void testModifiedUTF8() throws IOException {
+      final File projectFolder = folder.newFolder("project");
+      final String method = "test\u0000\uD83D\uDE00";
+      final ResultHistoryIndex index = new ResultHistoryIndex(projectFolder);
+      index.rebuild();
+      ResultHistoryIndex.append(projectFolder, Paths.get("de.test.Clazz", "testMethod.xml"), "de.test.Clazz", method,
+            Collections.singletonMap("collectorA", createResult(10, 1.0)));
+
+      final List<ResultHistoryIndex.Entry> history = index.getHistory("de.test.Clazz", method, "collectorA");
+      Assert.assertEquals(1, history.size());
+   }
+}
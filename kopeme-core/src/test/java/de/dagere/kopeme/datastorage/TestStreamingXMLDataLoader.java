@@ -0,0 +1,101 @@
+package de.dagere.kopeme.datastorage;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.bind.JAXBException;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.dagere.kopeme.generated.Kopemedata;
+import de.dagere.kopeme.generated.Kopemedata.Testcases;
+import de.dagere.kopeme.generated.Result;
+import de.dagere.kopeme.generated.Result.Fulldata;
+import de.dagere.kopeme.generated.Result.Fulldata.Value;
+
+public class TestStreamingXMLDataLoader {
+
+   @Rule
+   public TemporaryFolder folder = new TemporaryFolder();
+
+   private File file;
+
+   @Before
+   public void writeData() throws IOException {
+      final Kopemedata data = new Kopemedata();
+      data.setTestcases(new Testcases());
+      data.getTestcases().setClazz("de.test.Clazz");
+      for (int i = 0; i < 3; i++) {
+         XMLDataStorer.addResult(data, createResult(i, 1000 + i), "testA", "collectorA", null);
+         XMLDataStorer.addResult(data, createResult(10 + i, 1000 + i), "testA", "collectorB", null);
+         XMLDataStorer.addResult(data, createResult(20 + i, 1000 + i), "testB", "collectorA", 5L);
+      }
+      file = folder.newFile("results.xml");
+      XMLDataStorer.storeData(file, data);
+   }
+
+   private Result createResult(final double value, final long date) {
+      final Result result = new Result();
+      result.setValue(value);
+      result.setDate(date);
+      result.setIterations(5);
+      result.setFulldata(new Fulldata());
+      for (int i = 0; i < 5; i++) {
+         final Value fullValue = new Value();
+         fullValue.setStart(date + i);
+         fullValue.setValue(i);
+         result.getFulldata().getValue().add(fullValue);
+      }
+      return result;
+   }
+
+   @Test
+   public void testCollectorFilter() throws JAXBException {
+      final Map<String, Map<Date, Long>> data = new StreamingXMLDataLoader(file).setCollectorName("collectorA").getData();
+      Assert.assertEquals(2, data.size());
+      Assert.assertEquals(3, data.get("testA").size());
+      Assert.assertEquals(Long.valueOf(2), data.get("testA").get(new Date(1002)));
+      Assert.assertEquals(Long.valueOf(21), data.get("testB").get(new Date(1001)));
+   }
+
+   @Test
+   public void testDateRangeAndFulldata() throws JAXBException {
+      final List<Result> results = new ArrayList<>();
+      final List<Long> chunks = new ArrayList<>();
+      new StreamingXMLDataLoader(file).setDateRange(1001, 1001).visit((testcase, collector, chunkStartTime, result) -> {
+         results.add(result);
+         chunks.add(chunkStartTime);
+      });
+      Assert.assertEquals(3, results.size());
+      Assert.assertEquals(5, results.get(0).getFulldata().getValue().size());
+      Assert.assertNull(chunks.get(0));
+      Assert.assertEquals(Long.valueOf(5), chunks.get(2));
+
+      final List<Result> skipped = new ArrayList<>();
+      new StreamingXMLDataLoader(file).setSkipFulldata(true).visit((testcase, collector, chunkStartTime, result) -> skipped.add(result));
+      Assert.assertEquals(9, skipped.size());
+      Assert.assertNull(skipped.get(0).getFulldata());
+      Assert.assertEquals(5, skipped.get(8).getIterations());
+      Assert.assertEquals(22.0, skipped.get(8).getValue(), 0.001);
+   }
+
+   @Test
+   public void testAppendedResults() throws JAXBException {
+      final long length = file.length();
+      new AppendingDataStorer(folder.getRoot(), "de.test.Clazz", "results").storeValue(createResult(30, 2000), "testA", "collectorA");
+
+      final Map<String, Map<Date, Long>> data = new StreamingXMLDataLoader(file).setCollectorName("collectorA").getData();
+      Assert.assertEquals(4, data.get("testA").size());
+      Assert.assertEquals(Long.valueOf(30), data.get("testA").get(new Date(2000)));
+      Assert.assertEquals(length, file.length());
+      Assert.assertTrue(AppendingDataStorer.getLogFile(file).exists());
+   }
+}
@@ -11,15 +11,19 @@ import java.util.Map;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.junit.function.ThrowingRunnable;
 import org.junit.runners.model.Statement;
 
+import de.dagere.kopeme.BatchCalibrator;
 import de.dagere.kopeme.OutputStreamUtil;
 import de.dagere.kopeme.PerformanceTestUtils;
 import de.dagere.kopeme.annotations.Assertion;
 import de.dagere.kopeme.annotations.MaximalRelativeStandardDeviation;
 import de.dagere.kopeme.annotations.PerformanceTest;
 import de.dagere.kopeme.datacollection.DataCollectorList;
+import de.dagere.kopeme.datacollection.HeapQuiescer;
 import de.dagere.kopeme.datacollection.TestResult;
+import de.dagere.kopeme.datacollection.WarmupController;
 import de.dagere.kopeme.kieker.KoPeMeKiekerSupport;
 
 /**
@@ -34,7 +38,11 @@ public abstract class KoPeMeBasicStatement extends Statement {
 
    private static final Logger LOG = LogManager.getLogger(KoPeMeBasicStatement.class);
 
+   private static final ThrowingRunnable EMPTY_RUNNABLE = () -> {
+   };
+
    protected Map<String, Double> maximalRelativeStandardDeviation;
+   protected WarmupController warmupController;
    protected Map<String, Long> assertationvalues;
    protected final String filename;
    protected Method method;
@@ -59,19 +67,11 @@ public abstract class KoPeMeBasicStatement extends Statement {
 
       annotation = method.getAnnotation(PerformanceTest.class);
 
-      if ("EXTENDED".equals(annotation.dataCollectors())) {
-         datacollectors = DataCollectorList.EXTENDED;
-      } else if ("STANDARD".equals(annotation.dataCollectors()) || annotation == null) {
-         datacollectors = DataCollectorList.STANDARD;
-      } else if ("ONLYTIME".equals(annotation.dataCollectors())) {
-         datacollectors = DataCollectorList.ONLYTIME;
-      } else if ("ONLYTIME_NOGC".equals(annotation.dataCollectors())) {
-         datacollectors = DataCollectorList.ONLYTIME_NOGC;
-      } else if ("NONE".equals(annotation.dataCollectors())) {
-         datacollectors = DataCollectorList.NONE;
-      } else {
+      try {
+         datacollectors = DataCollectorList.getConfiguredList(annotation != null ? annotation.dataCollectors() : "STANDARD");
+      } catch (final RuntimeException e) {
          datacollectors = DataCollectorList.ONLYTIME;
-         LOG.error("For Datacollectorlist, only STANDARD, ONLYTIME, ONLYTIME_NOGC and NONE are allowed");
+         LOG.error("Datacollectors could not be created, only measuring time: {}", e.getMessage());
       }
 
       if (annotation != null) {
@@ -105,8 +105,93 @@ public abstract class KoPeMeBasicStatement extends Statement {
       return PerformanceTestUtils.checkCollectorValidity(tr, assertationvalues, maximalRelativeStandardDeviation);
    }
 
+   /**
+    * Creates the controller which decides when the warmup is finished, if steady state detection or quiet compilation is enabled and the given result is a
+    * warmup result. The controller is kept in {@link #warmupController}, so the steady state iteration can be passed to the result of the measurement
+    * afterwards.
+    * 
+    * @param tr Result of the running measurement
+    * @return The controller, or null if the warmup count is fixed
+    */
+   protected WarmupController createWarmupController(final TestResult tr) {
+      if (tr.isWarmup()) {
+         warmupController = WarmupController.create(annotation);
+         return warmupController;
+      }
+      return null;
+   }
+
+   /**
+    * Passes the iteration in which the warmup reached a steady state to the result of the measurement.
+    * 
+    * @param tr Result of the measurement
+    */
+   protected void setSteadyStateIteration(final TestResult tr) {
+      if (warmupController != null) {
+         tr.setSteadyStateIteration(warmupController.getSteadyStateIteration());
+      }
+   }
+
+   /**
+    * Checks whether the measurement can be stopped early, since the relative standard deviations of all collectors given in the deviations of the annotation
+    * are below their maximum. Warmup executions are never stopped early.
+    * 
+    * @param tr Result of the running measurement
+    * @param execution Count of finished executions
+    * @return Whether the measurement can be stopped
+    */
+   protected boolean isDeviationReached(final TestResult tr, final int execution) {
+      return !tr.isWarmup() && execution >= annotation.minEarlyStopExecutions() && !maximalRelativeStandardDeviation.isEmpty()
+            && tr.isRelativeStandardDeviationBelow(maximalRelativeStandardDeviation);
+   }
+
+   /**
+    * Calibrates the count of repetitions per execution of the test runnable, if auto batching is enabled (see
+    * {@link #calibrateBatch(TestResult, BatchCalibrator.Batch, BatchCalibrator.Batch)}).
+    * 
+    * @param tr Result of the measurement
+    * @return The calibrated count of repetitions, or the repetitions of the annotation if auto batching is disabled
+    * @throws Throwable Any exception that occurs during the test
+    */
+   protected int calibrateBatch(final TestResult tr) throws Throwable {
+      if (annotation.autoBatchDuration() <= 0) {
+         return annotation.repetitions();
+      }
+      runnables.getBeforeRunnable().run();
+      try {
+         return calibrateBatch(tr, invocations -> runAllRepetitions(runnables.getTestRunnable(), invocations),
+               invocations -> runAllRepetitions(EMPTY_RUNNABLE, invocations));
+      } finally {
+         runnables.getAfterRunnable().run();
+      }
+   }
+
+   /**
+    * Calibrates the count of repetitions per execution so that an execution takes about the auto batch duration of the annotation, and measures the duration
+    * of an execution of an empty test as baseline. Both are saved in the given result. Should be called after the warmup, since the duration of the test
+    * changes with the JIT compilation.
+    * 
+    * @param tr Result of the measurement
+    * @param batch Runs the given count of repetitions of the test
+    * @param emptyBatch Runs the given count of repetitions in the same way, but without the test
+    * @return The calibrated count of repetitions, or the repetitions of the annotation if auto batching is disabled
+    * @throws Throwable Any exception that occurs during the test
+    */
+   protected int calibrateBatch(final TestResult tr, final BatchCalibrator.Batch batch, final BatchCalibrator.Batch emptyBatch) throws Throwable {
+      if (annotation.autoBatchDuration() <= 0) {
+         return annotation.repetitions();
+      }
+      final BatchCalibrator calibrator = new BatchCalibrator(annotation.autoBatchDuration() * 1000L);
+      final int repetitions = calibrator.calibrate(batch);
+      final long baseline = calibrator.measureBaseline(emptyBatch, repetitions);
+      LOG.info("Calibrated {} repetitions per execution, baseline: {} ns", repetitions, baseline);
+      tr.setBatching(repetitions, baseline);
+      return repetitions;
+   }
+
    protected void runMainExecution(final TestResult tr, final String warmupString, final int executions, final int repetitions) throws Throwable {
-      System.gc();
+      tr.setHeapQuiescer(HeapQuiescer.create(annotation));
+      tr.getHeapQuiescer().beforeMeasurement(tr.isWarmup());
       final String fullWarmupStart = "--- Starting " + warmupString + " {}/" + executions + " ---";
       final String fullWarmupStop = "--- Stopping " + warmupString + " {}/" + executions + " ---";
       tr.beforeRun();
@@ -118,34 +203,40 @@ public abstract class KoPeMeBasicStatement extends Statement {
             OutputStreamUtil.redirectToNullStream();
          }
          LOG.debug("Executing " + executions + " " + warmupString);
+         final WarmupController controller = createWarmupController(tr);
          for (execution = 1; execution <= executions; execution++) {
             if (annotation.showStart()) {
                LOG.debug(fullWarmupStart, execution);
             }
             runnables.getBeforeRunnable().run();
             tr.startCollection();
-            runAllRepetitions(repetitions);
+            final long start = controller != null ? System.nanoTime() : 0;
+            runAllRepetitions(runnables.getTestRunnable(), repetitions);
+            final long duration = controller != null ? System.nanoTime() - start : 0;
             tr.stopCollection();
             runnables.getAfterRunnable().run();
-            tr.setRealExecutions(execution - 1);
+            tr.setRealExecutions(execution);
             if (annotation.showStart()) {
                LOG.debug(fullWarmupStop, execution);
             }
-//            if (execution >= annotation.minEarlyStopExecutions() && !maximalRelativeStandardDeviation.isEmpty()
-//                  && tr.isRelativeStandardDeviationBelow(maximalRelativeStandardDeviation)) {
-//               LOG.info("Exiting because of deviation reached");
-//               break;
-//            }
+            if (controller != null && controller.addValue(duration)) {
+               LOG.info("Exiting warmup because of steady state reached");
+               break;
+            }
+            if (isDeviationReached(tr, execution)) {
+               LOG.info("Exiting because of deviation reached");
+               tr.setSavedExecutions(executions - execution);
+               break;
+            }
             checkFinished();
          }
       } finally {
          OutputStreamUtil.resetStreams();
       }
 
-      System.gc();
+      tr.getHeapQuiescer().afterMeasurement();
       Thread.sleep(1);
-      LOG.debug("Executions: " + (execution - 1));
-      tr.setRealExecutions(execution - 1);
+      LOG.debug("Executions: " + tr.getRealExecutions());
    }
    
    private void redirectToTempFile() throws IOException, FileNotFoundException {
@@ -155,9 +246,9 @@ public abstract class KoPeMeBasicStatement extends Statement {
       System.setErr(stream);
    }
 
-   private void runAllRepetitions(final int repetitions) throws Throwable {
+   private void runAllRepetitions(final ThrowingRunnable runnable, final int repetitions) throws Throwable {
       for (int repetition = 0; repetition < repetitions; repetition++) {
-         runnables.getTestRunnable().run();
+         runnable.run();
       }
    }
 
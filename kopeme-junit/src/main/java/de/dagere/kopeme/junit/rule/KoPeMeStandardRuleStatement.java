@@ -33,6 +33,9 @@ public class KoPeMeStandardRuleStatement extends KoPeMeBasicStatement {
    public KoPeMeStandardRuleStatement(final TestRunnables runnables, final Method method, final String filename) {
       super(runnables, method, filename);
       finalResult = new TestResult(method.getName(), annotation.warmup(), datacollectors, false);
+      if (annotation.logHistogram()) {
+         finalResult.enableHistograms();
+      }
    }
 
    @Override
@@ -76,7 +79,8 @@ public class KoPeMeStandardRuleStatement extends KoPeMeBasicStatement {
       try {
          runWarmup();
          if (!isFinished) {
-            runMainExecution(finalResult, "execution ", annotation.iterations(), annotation.repetitions());
+            final int repetitions = calibrateBatch(finalResult);
+            runMainExecution(finalResult, "execution ", annotation.iterations(), repetitions);
          }
       } catch (final AssertionFailedError t) {
          finalResult.finalizeCollection(t);
@@ -97,6 +101,7 @@ public class KoPeMeStandardRuleStatement extends KoPeMeBasicStatement {
          final TestResult deletableResult = new TestResult(method.getName(), annotation.warmup(), datacollectors, true);
          runMainExecution(deletableResult, "warmup execution ", annotation.warmup(), annotation.repetitions());
          deletableResult.deleteTempFile();
+         setSteadyStateIteration(finalResult);
       }
    }
 }
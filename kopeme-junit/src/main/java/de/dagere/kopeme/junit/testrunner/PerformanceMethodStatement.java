@@ -17,7 +17,9 @@ import de.dagere.kopeme.OutputStreamUtil;
 import de.dagere.kopeme.PerformanceTestUtils;
 import de.dagere.kopeme.TimeBoundExecution;
 import de.dagere.kopeme.TimeBoundExecution.Type;
+import de.dagere.kopeme.datacollection.HeapQuiescer;
 import de.dagere.kopeme.datacollection.TestResult;
+import de.dagere.kopeme.datacollection.WarmupController;
 import de.dagere.kopeme.datastorage.RunConfiguration;
 import de.dagere.kopeme.datastorage.SaveableTestData;
 import de.dagere.kopeme.junit.rule.KoPeMeBasicStatement;
@@ -105,12 +107,17 @@ public class PerformanceMethodStatement extends KoPeMeBasicStatement {
     */
    protected TestResult executeSimpleTest(final PerformanceJUnitStatement callee, final int executions) throws Throwable {
       final TestResult tr = new TestResult(methodName, executions, datacollectors, false);
+      if (configuration.isSaveHistograms()) {
+         tr.enableHistograms();
+      }
+      setSteadyStateIteration(tr);
 
       if (!PerformanceTestUtils.checkCollectorValidity(tr, assertationvalues, maximalRelativeStandardDeviation)) {
          LOG.warn("Not all Collectors are valid!");
       }
       try {
-         runMainExecution(tr, "execution ", executions, callee, configuration.getRepetitions());
+         final int repetitions = calibrateBatch(tr, invocations -> runAllRepetitions(callee, invocations), invocations -> runEmptyRepetitions(callee, invocations));
+         runMainExecution(tr, "execution ", executions, callee, repetitions);
       } catch (final Throwable t) {
          tr.finalizeCollection(t);
          saveData(SaveableTestData.createErrorTestData(methodName, filename, tr, configuration));
@@ -153,12 +160,14 @@ public class PerformanceMethodStatement extends KoPeMeBasicStatement {
     */
    protected void runMainExecution(final TestResult tr, final String warmupString, final int executions, final PerformanceJUnitStatement callee, final int repetitions)
          throws Throwable {
-      System.gc();
+      tr.setHeapQuiescer(HeapQuiescer.create(annotation));
+      tr.getHeapQuiescer().beforeMeasurement(tr.isWarmup());
       final String methodString = className + "." + tr.getTestcase();
       final String fullWarmupStart = "--- Starting " + warmupString + methodString + " {} / {} ---";
       final String fullWarmupStop = "--- Stopping " + warmupString + " {} ---";
       tr.beforeRun();
       int execution = 1;
+      final WarmupController controller = createWarmupController(tr);
       try {
          if (annotation.redirectToTemp()) {
             redirectToTempFile();
@@ -170,26 +179,31 @@ public class PerformanceMethodStatement extends KoPeMeBasicStatement {
                LOG.debug(fullWarmupStart, execution, executions);
             }
             tr.startCollection();
+            final long start = controller != null ? System.nanoTime() : 0;
             runAllRepetitions(callee, repetitions);
+            final long duration = controller != null ? System.nanoTime() - start : 0;
             tr.stopCollection();
             if (annotation.showStart()) {
                LOG.debug(fullWarmupStop, execution);
             }
             tr.setRealExecutions(execution);
-//            if (execution >= annotation.minEarlyStopExecutions() && !maximalRelativeStandardDeviation.isEmpty()
-//                  && tr.isRelativeStandardDeviationBelow(maximalRelativeStandardDeviation)) {
-//               LOG.info("Exiting because of deviation reached");
-//               break;
-//            }
+            if (controller != null && controller.addValue(duration)) {
+               LOG.info("Exiting warmup because of steady state reached");
+               break;
+            }
+            if (isDeviationReached(tr, execution)) {
+               LOG.info("Exiting because of deviation reached");
+               tr.setSavedExecutions(executions - execution);
+               break;
+            }
             checkFinished();
          }
       } finally {
          OutputStreamUtil.resetStreams();
       }
-      System.gc();
+      tr.getHeapQuiescer().afterMeasurement();
       Thread.sleep(1);
-      LOG.debug("Executions: " + (execution - 1));
-      tr.setRealExecutions(execution - 1);
+      LOG.debug("Executions: " + tr.getRealExecutions());
    }
 
    private void redirectToTempFile() throws IOException, FileNotFoundException {
@@ -220,6 +234,17 @@ public class PerformanceMethodStatement extends KoPeMeBasicStatement {
       }
    }
 
+   /**
+    * Runs the repetitions like {@link #runAllRepetitions(PerformanceJUnitStatement, int)}, but without the test itself, so the before and after methods are
+    * part of the baseline of auto batching.
+    */
+   private void runEmptyRepetitions(final PerformanceJUnitStatement callee, final int repetitions) {
+      for (int i = 0; i < repetitions; i++) {
+         callee.preEvaluate();
+         callee.postEvaluate();
+      }
+   }
+
    public void setFinished(final boolean isFinished) {
       LOG.debug("Setting finished: " + isFinished + " " + mainRunnable);
       if (mainRunnable != null) {
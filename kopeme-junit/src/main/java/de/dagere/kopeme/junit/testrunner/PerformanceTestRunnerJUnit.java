@@ -26,6 +26,7 @@ import de.dagere.kopeme.annotations.AnnotationDefaults;
 import de.dagere.kopeme.annotations.PerformanceTest;
 import de.dagere.kopeme.annotations.PerformanceTestingClass;
 import de.dagere.kopeme.datacollection.TestResult;
+import de.dagere.kopeme.datastorage.XMLDataStorer;
 
 /**
  * Runs a Performance Test with JUnit. The method which should be tested has to got the parameter TestResult. This does not work without another runner, e.g. the TheorieRunner. An
@@ -92,6 +93,7 @@ public class PerformanceTestRunnerJUnit extends BlockJUnit4ClassRunner {
       // This is usually a class-wide call, therefore kieker can be set to false, because its activated per-method
       final TimeBoundExecution tbe = new TimeBoundExecution(testRunRunnable, ptc.overallTimeout(), Type.CLASS, false);
       final boolean finished = tbe.execute();
+      XMLDataStorer.clearCache();
       LOG.debug("Time: " + (System.nanoTime() - start) / 10E6 + " milliseconds");
       if (!finished) {
          classFinished = true;
@@ -7,6 +7,7 @@ import java.util.Set;
 
 import javax.xml.bind.JAXBException;
 
+import org.HdrHistogram.Histogram;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Rule;
@@ -19,14 +20,17 @@ import de.dagere.kopeme.datacollection.TestResult;
 import de.dagere.kopeme.datacollection.TimeDataCollectorNoGC;
 import de.dagere.kopeme.datacollection.tempfile.WrittenResultReader;
 import de.dagere.kopeme.datastorage.EnvironmentUtil;
+import de.dagere.kopeme.datastorage.HistogramFile;
 import de.dagere.kopeme.datastorage.XMLDataLoader;
 import de.dagere.kopeme.generated.Result;
 import de.dagere.kopeme.generated.Result.Fulldata;
 import de.dagere.kopeme.generated.TestcaseType;
 import de.dagere.kopeme.generated.TestcaseType.Datacollector;
 import de.dagere.kopeme.junit.exampletests.runner.JUnitAdditionTest;
+import de.dagere.kopeme.junit.exampletests.runner.JUnitAdditionTestBatching;
 import de.dagere.kopeme.junit.exampletests.runner.JUnitAdditionTestFullData;
 import de.dagere.kopeme.junit.exampletests.runner.JUnitAdditionTestFullDataBig;
+import de.dagere.kopeme.junit.exampletests.runner.JUnitAdditionTestHistogram;
 
 public class TestFulldataFunctionality {
 
@@ -110,7 +114,7 @@ public class TestFulldataFunctionality {
                final Set<String> collectors = new HashSet<>();
                collectors.add(TimeDataCollectorNoGC.class.getCanonicalName());
                reader.read(null, collectors);
-               Assert.assertEquals(TestResult.BOUNDARY_SAVE_FILE * 2, reader.getRealValues().size());
+               Assert.assertEquals(TestResult.BOUNDARY_SAVE_FILE * 2, reader.getColumns().getIterations());
             }
          }
       } catch (final JAXBException e) {
@@ -120,5 +124,50 @@ public class TestFulldataFunctionality {
       expectedKoPemeXML.delete();
    }
 
+   @Test
+   public void testHistogramWriting() throws IOException {
+      final JUnitCore jc = new JUnitCore();
+      jc.run(JUnitAdditionTestHistogram.class);
+      final File expectedKoPemeXML = TestUtils.xmlFileForKoPeMeTest(JUnitAdditionTestHistogram.class.getCanonicalName(), TestUtils.TEST_ADDITION);
+      Assert.assertTrue("Datei " + expectedKoPemeXML + " sollte existieren", expectedKoPemeXML.exists());
+      try {
+         XMLDataLoader xdl = new XMLDataLoader(expectedKoPemeXML);
+         final TestcaseType testcase = xdl.getFullData().getTestcases().getTestcase().get(0);
+         for (final Datacollector dc : testcase.getDatacollector()) {
+            for (final Result r : dc.getResult()) {
+               Assert.assertNull(r.getFulldata());
+               Assert.assertNotNull(r.getHistogram());
+               final File histogramFile = new File(expectedKoPemeXML.getParentFile(), r.getHistogram());
+               Assert.assertTrue(histogramFile.exists());
+               final Histogram histogram = HistogramFile.read(histogramFile);
+               Assert.assertEquals(TestResult.BOUNDARY_SAVE_FILE * 2, histogram.getTotalCount());
+            }
+         }
+      } catch (final JAXBException e) {
+         e.printStackTrace();
+      }
+
+      expectedKoPemeXML.delete();
+   }
+
+   @Test
+   public void testBatching() throws JAXBException {
+      final JUnitCore jc = new JUnitCore();
+      jc.run(JUnitAdditionTestBatching.class);
+      final File expectedKoPemeXML = TestUtils.xmlFileForKoPeMeTest(JUnitAdditionTestBatching.class.getCanonicalName(), TestUtils.TEST_ADDITION);
+      Assert.assertTrue("Datei " + expectedKoPemeXML + " sollte existieren", expectedKoPemeXML.exists());
+      final XMLDataLoader xdl = new XMLDataLoader(expectedKoPemeXML);
+      final TestcaseType testcase = xdl.getFullData().getTestcases().getTestcase().get(0);
+      for (final Datacollector dc : testcase.getDatacollector()) {
+         for (final Result r : dc.getResult()) {
+            Assert.assertTrue("Repetitions: " + r.getRepetitions(), r.getRepetitions() > 1);
+            Assert.assertNotNull(r.getBatchBaseline());
+            Assert.assertNotNull(r.getInvocationTime());
+            Assert.assertEquals((r.getValue() - r.getBatchBaseline()) / r.getRepetitions(), r.getInvocationTime(), 0.001);
+         }
+      }
+
+      expectedKoPemeXML.delete();
+   }
 
 }
@@ -4,13 +4,11 @@ import java.lang.Thread.UncaughtExceptionHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
 import org.apache.commons.math3.exception.NotStrictlyPositiveException;
 import org.apache.commons.math3.random.EmpiricalDistribution;
-import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -21,6 +19,7 @@ import de.dagere.kopeme.annotations.PerformanceTestingClass;
 import de.dagere.kopeme.datacollection.DataCollectorList;
 import de.dagere.kopeme.datacollection.TestResult;
 import de.dagere.kopeme.datacollection.TimeDataCollector;
+import de.dagere.kopeme.datacollection.WarmupController;
 import de.dagere.kopeme.datastorage.RunConfiguration;
 import de.dagere.kopeme.datastorage.SaveableTestData;
 import de.dagere.kopeme.kieker.KoPeMeKiekerSupport;
@@ -35,12 +34,15 @@ import junit.framework.TestCase;
  */
 public abstract class KoPeMeStaticRigorTestcase extends TestCase {
 
-	private static final double COEFFICIENT_OF_VARIATION = 0.05;
-
 	private static final double CDF_BOUNDARY = 0.99;
 
 	private static final int INTERRUPT_TRIES = 10;
 
+	/**
+	 * Factor of the warmup executions giving the maximal count of warmup executions, so tests which do not reach a steady state are measured nevertheless.
+	 */
+	private static final int MAX_WARMUP_FACTOR = 10;
+
 	private static final Logger LOG = LogManager.getLogger(KoPeMeStaticRigorTestcase.class);
 
 	private final PerformanceTest annoTestcase = AnnotationDefaults.of(PerformanceTest.class);
@@ -229,54 +231,19 @@ public abstract class KoPeMeStaticRigorTestcase extends TestCase {
 	 */
 	private void runTestCase(final TestResult tr, final int warmupExecutions, final int executionTimes, final boolean fullData)
 			throws Throwable {
-		final List<Long> timeMeasurements = new LinkedList<>();
-
 		final String fullName = this.getClass().getName() + "." + getName();
+		final int maxWarmupExecutions = Math.max(MAX_WARMUP_FACTOR * warmupExecutions, WarmupController.MIN_STEADY_STATE_ITERATIONS);
+		final WarmupController controller = new WarmupController(warmupExecutions, maxWarmupExecutions);
 		int i = 1;
-		double mean = 1, standardeviation = 1;
-		while (standardeviation / mean > COEFFICIENT_OF_VARIATION || i < warmupExecutions) {
+		while (!controller.isFinished()) {
 			setUp();
-			LOG.info("-- Starting warmup execution " + fullName + " " + i + "/" + warmupExecutions + " -- (" + standardeviation / mean + ")");
+			LOG.info("-- Starting warmup execution " + fullName + " " + i + "/" + warmupExecutions + " --");
 			final long start = System.nanoTime();
 			KoPeMeStaticRigorTestcase.super.runTest();
 			final long measurement = System.nanoTime() - start;
 			LOG.info("-- Stopping warmup execution " + i + "/" + warmupExecutions + " --");
 			tearDown();
-			if (i < warmupExecutions) {
-				timeMeasurements.add(measurement);
-				final SummaryStatistics st = new SummaryStatistics();
-				for (final Long l : timeMeasurements) {
-					st.addValue(l);
-				}
-
-				mean = st.getMean();
-				standardeviation = st.getStandardDeviation();
-				LOG.trace("Val: {} Mean: {} Abweichung: {}", measurement, mean, Math.abs(mean - measurement));
-			} else {
-				final EmpiricalDistribution distribution = getDistribution(timeMeasurements);
-				final double cdfValue = distribution.cumulativeProbability(measurement);
-				LOG.trace("Val: {} PDF: {} Mean: {} Abweichung: {}", measurement, cdfValue, mean, Math.abs(mean - measurement));
-
-				final boolean isOutlier = cdfValue > CDF_BOUNDARY;
-
-				// if (!isOutlier) {
-				timeMeasurements.add(measurement);
-
-				if (i > warmupExecutions) {
-					timeMeasurements.remove(0);
-				}
-
-				final SummaryStatistics st = new SummaryStatistics();
-				for (final Long l : timeMeasurements) {
-					st.addValue(l);
-				}
-
-				mean = st.getMean();
-				standardeviation = st.getStandardDeviation();
-				// } else {
-				// LOG.info("Ausreißer: {} Abweichung: {} Mittelwert: {}", measurement, Math.abs(mean - measurement), mean);
-				// }
-			}
+			controller.addValue(measurement);
 
 			i++;
 			if (Thread.interrupted()) {
@@ -285,6 +252,12 @@ public abstract class KoPeMeStaticRigorTestcase extends TestCase {
 				LOG.trace("Nicht interrupted!");
 			}
 		}
+		if (controller.getSteadyStateIteration() != -1) {
+			LOG.debug("Steady state reached after {} warmup executions", controller.getSteadyStateIteration());
+		} else {
+			LOG.warn("No steady state reached after {} warmup executions", controller.getIterations());
+		}
+		tr.setSteadyStateIteration(controller.getSteadyStateIteration());
 
 		try {
 			runMainExecution(fullName, tr, executionTimes);
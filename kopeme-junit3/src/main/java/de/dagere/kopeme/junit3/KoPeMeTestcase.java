@@ -20,6 +20,8 @@ import de.dagere.kopeme.annotations.AnnotationDefaults;
 import de.dagere.kopeme.annotations.PerformanceTest;
 import de.dagere.kopeme.annotations.PerformanceTestingClass;
 import de.dagere.kopeme.datacollection.DataCollectorList;
+import de.dagere.kopeme.datacollection.HeapQuiescer;
+import de.dagere.kopeme.datacollection.HeapQuiescing;
 import de.dagere.kopeme.datacollection.TestResult;
 import de.dagere.kopeme.datastorage.RunConfiguration;
 import de.dagere.kopeme.datastorage.SaveableTestData;
@@ -94,6 +96,43 @@ public abstract class KoPeMeTestcase extends TestCase {
    protected boolean logFullData() {
       return annoTestcase.logFullData();
    }
+
+   /**
+    * Returns weather the values of the time collectors should be recorded into latency histograms.
+    * 
+    * @return Weather histograms should be logged
+    */
+   protected boolean logHistogram() {
+      return annoTestcase.logHistogram();
+   }
+
+   /**
+    * Returns when garbage is collected by System.gc(), default is before every execution if a collector requires it (see
+    * {@link PerformanceTest#heapQuiescing()}).
+    * 
+    * @return Strategy for quiescing the heap
+    */
+   protected HeapQuiescing getHeapQuiescing() {
+      return annoTestcase.heapQuiescing();
+   }
+
+   /**
+    * Returns the count of executions between two garbage collections if {@link #getHeapQuiescing()} is EVERY_N_ITERATIONS, default is 100.
+    * 
+    * @return Count of executions
+    */
+   protected int getHeapQuiescingInterval() {
+      return annoTestcase.heapQuiescingInterval();
+   }
+
+   /**
+    * Returns the percentage of the maximum heap above which garbage is collected if {@link #getHeapQuiescing()} is HEAP_OCCUPANCY, default is 80.
+    * 
+    * @return Percentage of the maximum heap
+    */
+   protected int getHeapQuiescingOccupancy() {
+      return annoTestcase.heapQuiescingOccupancy();
+   }
    
    protected boolean showStart() {
       return false;
@@ -145,6 +184,10 @@ public abstract class KoPeMeTestcase extends TestCase {
       final String testClassName = this.getClass().getName();
       final DataCollectorList datacollectors = getDataCollectors();
       final TestResult finalResult = new TestResult(testClassName, executionTimes, datacollectors, false);
+      finalResult.setHeapQuiescer(createHeapQuiescer());
+      if (logHistogram()) {
+         finalResult.enableHistograms();
+      }
 
       KoPeMeKiekerSupport.INSTANCE.useKieker(useKieker(), testClassName, getName());
 
@@ -173,6 +216,7 @@ public abstract class KoPeMeTestcase extends TestCase {
          }
       };
       RunConfiguration configuration = new RunConfiguration(getWarmup(), getRepetitions(), showStart(), redirectToTemp(), redirectToNull(), logFullData());
+      configuration.setSaveHistograms(logHistogram());
       final TimeBoundExecution tbe = new TimeBoundExecution(finishable, timeoutTime, Type.METHOD, useKieker());
       try {
          final boolean finished = tbe.execute();
@@ -206,6 +250,7 @@ public abstract class KoPeMeTestcase extends TestCase {
       final String fullName = this.getClass().getName() + "." + getName();
       try {
          final TestResult bulkResult = new TestResult(tr.getTestcase(), executionTimes, getDataCollectors(), true);
+         bulkResult.setHeapQuiescer(createHeapQuiescer());
          runMainExecution("warmup", fullName, bulkResult, warmupExecutions);
          runMainExecution("main", fullName, tr, executionTimes);
          LOG.debug("Finalizing..");
@@ -223,6 +268,10 @@ public abstract class KoPeMeTestcase extends TestCase {
       }
    }
 
+   private HeapQuiescer createHeapQuiescer() {
+      return new HeapQuiescer(getHeapQuiescing(), getHeapQuiescingInterval(), getHeapQuiescingOccupancy());
+   }
+
    /**
     * Runs the main execution of the test, i.e.useKieker the execution where performance measures are counted.
     * 
@@ -233,7 +282,7 @@ public abstract class KoPeMeTestcase extends TestCase {
     * @throws Throwable
     */
    protected void runMainExecution(final String executionTypName, final String name, final TestResult tr, final int executionTimes) throws Throwable {
-      System.gc();
+      tr.getHeapQuiescer().beforeMeasurement(tr.isWarmup());
       final String firstPart = "--- Starting " + executionTypName + " execution " + name + " ";
       final String firstPartStop = "--- Stopping " + executionTypName + " execution ";
       final String endPart = "/" + executionTimes + " ---";
@@ -263,7 +312,7 @@ public abstract class KoPeMeTestcase extends TestCase {
       } finally {
          OutputStreamUtil.resetStreams();
       }
-      System.gc();
+      tr.getHeapQuiescer().afterMeasurement();
       Thread.sleep(1);
       LOG.debug("Executions: " + (execution - 1));
       tr.setRealExecutions(execution - 1);
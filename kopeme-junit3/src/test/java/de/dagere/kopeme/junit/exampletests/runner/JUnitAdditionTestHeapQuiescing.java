@@ -0,0 +1,42 @@
+package de.dagere.kopeme.junit.exampletests.runner;
+
+import de.dagere.kopeme.datacollection.DataCollectorList;
+import de.dagere.kopeme.datacollection.HeapQuiescing;
+import de.dagere.kopeme.junit3.KoPeMeTestcase;
+import junit.framework.Assert;
+
+public class JUnitAdditionTestHeapQuiescing extends KoPeMeTestcase {
+
+	public void testAddition() {
+		int a = 0;
+		for (int i = 0; i < 10000; i++) {
+			a += i;
+		}
+		Assert.assertEquals(10000 * 9999 / 2, a);
+	}
+
+	@Override
+	protected int getWarmup() {
+		return 2;
+	}
+
+	@Override
+	protected int getIterations() {
+		return 10;
+	}
+
+	@Override
+	protected HeapQuiescing getHeapQuiescing() {
+		return HeapQuiescing.EVERY_N_ITERATIONS;
+	}
+
+	@Override
+	protected int getHeapQuiescingInterval() {
+		return 5;
+	}
+
+	@Override
+	protected DataCollectorList getDataCollectors() {
+		return DataCollectorList.ONLYTIME;
+	}
+}
@@ -0,0 +1,36 @@
+package de.dagere.kopeme.junit.exampletests.runner;
+
+import de.dagere.kopeme.datacollection.DataCollectorList;
+import de.dagere.kopeme.junit3.KoPeMeTestcase;
+import junit.framework.Assert;
+
+public class JUnitAdditionTestHistogram extends KoPeMeTestcase {
+
+	public void testAddition() {
+		int a = 0;
+		for (int i = 0; i < 10000; i++) {
+			a += i;
+		}
+		Assert.assertEquals(10000 * 9999 / 2, a);
+	}
+
+	@Override
+	protected int getWarmup() {
+		return 2;
+	}
+
+	@Override
+	protected int getIterations() {
+		return 10;
+	}
+
+	@Override
+	protected boolean logHistogram() {
+		return true;
+	}
+
+	@Override
+	protected DataCollectorList getDataCollectors() {
+		return DataCollectorList.ONLYTIME;
+	}
+}
@@ -13,6 +13,8 @@ import de.dagere.kopeme.generated.Result.Fulldata;
 import de.dagere.kopeme.generated.TestcaseType;
 import de.dagere.kopeme.generated.TestcaseType.Datacollector;
 import de.dagere.kopeme.junit.exampletests.runner.JUnitAdditionTestFullData;
+import de.dagere.kopeme.junit.exampletests.runner.JUnitAdditionTestHeapQuiescing;
+import de.dagere.kopeme.junit.exampletests.runner.JUnitAdditionTestHistogram;
 import junit.framework.Assert;
 import junit.framework.TestCase;
 import junit.textui.TestRunner;
@@ -52,4 +54,33 @@ public class TestFulldataFunctionality extends TestCase {
 
 	}
 
+	public void testHistogramWriting() throws JAXBException {
+		TestRunner.run(JUnitAdditionTestHistogram.class);
+		final File file = TestUtils.xmlFileForKoPeMeTest(JUnitAdditionTestHistogram.class.getName(), TestUtils.TEST_ADDITION);
+		Assert.assertTrue("File " + file + " should exist.", file.exists());
+
+		final XMLDataLoader xdl = new XMLDataLoader(file);
+		final TestcaseType testcase = xdl.getFullData().getTestcases().getTestcase().get(0);
+		for (final Datacollector dc : testcase.getDatacollector()) {
+			for (final Result r : dc.getResult()) {
+				Assert.assertNotNull(r.getHistogram());
+				Assert.assertTrue(new File(file.getParentFile(), r.getHistogram()).exists());
+			}
+		}
+	}
+
+	public void testHeapQuiescing() throws JAXBException {
+		TestRunner.run(JUnitAdditionTestHeapQuiescing.class);
+		final File file = TestUtils.xmlFileForKoPeMeTest(JUnitAdditionTestHeapQuiescing.class.getName(), TestUtils.TEST_ADDITION);
+		Assert.assertTrue("File " + file + " should exist.", file.exists());
+
+		final XMLDataLoader xdl = new XMLDataLoader(file);
+		final TestcaseType testcase = xdl.getFullData().getTestcases().getTestcase().get(0);
+		for (final Datacollector dc : testcase.getDatacollector()) {
+			for (final Result r : dc.getResult()) {
+				Assert.assertEquals("EVERY_N_ITERATIONS(5)", r.getHeapQuiescing());
+			}
+		}
+	}
+
 }